@@ -0,0 +1,101 @@
+package org.example.common;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+The begin / commit / rollback / close dance of every lesson in one place:
+
+    Jpa.inTransaction(em -> em.persist(product));
+    Product product = Jpa.fromTransaction(em -> em.find(Product.class, 1));
+
+The EntityManager only lives for the call, the transaction is committed when the work returns
+and rolled back (and the exception rethrown) when it fails.
+
+For work that only reads, inReadOnlyTransaction / fromReadOnlyTransaction load the entities read-only:
+Hibernate keeps no snapshot of their state and never flushes, changes made to them are not saved.
+ */
+public final class Jpa {
+
+    private Jpa() {
+    }
+
+    public static void inTransaction(Consumer<EntityManager> work) {
+        inTransaction(PersistenceUnits.DEFAULT_UNIT, work);
+    }
+
+    public static void inTransaction(String unitName, Consumer<EntityManager> work) {
+        fromTransaction(unitName, em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    public static <R> R fromTransaction(Function<EntityManager, R> work) {
+        return fromTransaction(PersistenceUnits.DEFAULT_UNIT, work);
+    }
+
+    public static <R> R fromTransaction(String unitName, Function<EntityManager, R> work) {
+        return withEntityManager(unitName, em -> {
+            EntityTransaction tx = em.getTransaction();
+            tx.begin();
+            try {
+                R result = work.apply(em);
+                tx.commit();
+                return result;
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        });
+    }
+
+    public static void inReadOnlyTransaction(Consumer<EntityManager> work) {
+        inReadOnlyTransaction(PersistenceUnits.DEFAULT_UNIT, work);
+    }
+
+    public static void inReadOnlyTransaction(String unitName, Consumer<EntityManager> work) {
+        fromReadOnlyTransaction(unitName, em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    public static <R> R fromReadOnlyTransaction(Function<EntityManager, R> work) {
+        return fromReadOnlyTransaction(PersistenceUnits.DEFAULT_UNIT, work);
+    }
+
+    public static <R> R fromReadOnlyTransaction(String unitName, Function<EntityManager, R> work) {
+        return fromTransaction(unitName, em -> {
+            Session session = em.unwrap(Session.class);
+            // entities loaded from now on get no snapshot (no dirty checking)
+            session.setDefaultReadOnly(true);
+            // and neither queries nor the commit flush
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            return work.apply(em);
+        });
+    }
+
+    /*
+    for work that doesn't need a transaction (e.g. em.find())
+     */
+    public static <R> R withEntityManager(Function<EntityManager, R> work) {
+        return withEntityManager(PersistenceUnits.DEFAULT_UNIT, work);
+    }
+
+    public static <R> R withEntityManager(String unitName, Function<EntityManager, R> work) {
+        EntityManager em = PersistenceUnits.get(unitName).createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+}
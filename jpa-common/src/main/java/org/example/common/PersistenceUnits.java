@@ -0,0 +1,211 @@
+package org.example.common;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Logger;
+
+/*
+Building an EntityManagerFactory scans the classes, builds the metamodel and enhances the
+proxies, it's the most expensive thing we do and it only has to be done once.
+
+PersistenceUnits builds one factory per persistence unit the first time it's asked for and
+gives the same (thread-safe) factory to every caller afterwards. All the factories are
+closed when the JVM stops, or earlier with close().
+ */
+public final class PersistenceUnits {
+    public static final String DEFAULT_UNIT = "my-persistence-unit";
+
+    private static final Logger LOG = Logger.getLogger(PersistenceUnits.class.getName());
+    // the bootstrap runs outside of the map, so that units don't wait on each other: callers of the same unit
+    // wait for the one task building it, the others aren't blocked at all
+    private static final ConcurrentMap<Key, FutureTask<Unit>> UNITS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PersistenceUnits::closeAll, "persistence-units-shutdown"));
+    }
+
+    private PersistenceUnits() {
+    }
+
+    public static EntityManagerFactory get() {
+        return get(DEFAULT_UNIT);
+    }
+
+    public static EntityManagerFactory get(String unitName) {
+        return get(unitName, Collections.emptyMap());
+    }
+
+    /*
+    the same unit with different overrides (e.g. a benchmark with and without the cache) gets its own factory
+     */
+    public static EntityManagerFactory get(String unitName, Map<String, ?> overrides) {
+        Key key = new Key(unitName, overrides);
+        FutureTask<Unit> unit = UNITS.get(key);
+        if (unit == null) {
+            FutureTask<Unit> bootstrap = new FutureTask<>(() -> bootstrap(key));
+            unit = UNITS.putIfAbsent(key, bootstrap);
+            if (unit == null) {
+                unit = bootstrap;
+                bootstrap.run();
+                if (UNITS.get(key) != bootstrap) {
+                    // close() was called while it was bootstrapping and couldn't close it yet
+                    closeIfBuilt(bootstrap);
+                }
+            }
+        }
+        EntityManagerFactory factory = await(key, unit).factory;
+        if (!factory.isOpen()) {
+            throw new IllegalStateException("Persistence unit " + key + " was closed while it was bootstrapping");
+        }
+        return factory;
+    }
+
+    /*
+    builds the factory in the background, so the first request doesn't pay for it
+     */
+    public static CompletableFuture<EntityManagerFactory> warmUp(String unitName) {
+        return CompletableFuture.supplyAsync(() -> get(unitName));
+    }
+
+    public static Duration bootstrapTime(String unitName) {
+        return bootstrapTime(unitName, Collections.emptyMap());
+    }
+
+    public static Duration bootstrapTime(String unitName, Map<String, ?> overrides) {
+        FutureTask<Unit> task = UNITS.get(new Key(unitName, overrides));
+        Unit unit = task != null ? built(task) : null;
+        return unit != null ? unit.bootstrapTime : null;
+    }
+
+    public static void close(String unitName) {
+        UNITS.entrySet().removeIf(entry -> {
+            if (entry.getKey().unitName.equals(unitName)) {
+                closeIfBuilt(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public static void closeAll() {
+        UNITS.values().removeIf(unit -> {
+            closeIfBuilt(unit);
+            return true;
+        });
+    }
+
+    /* a unit still bootstrapping is closed by the thread building it, once it sees it's no longer in UNITS */
+    private static void closeIfBuilt(FutureTask<Unit> task) {
+        Unit unit = built(task);
+        if (unit != null) {
+            unit.close();
+        }
+    }
+
+    /* null while it's bootstrapping or when the bootstrap failed */
+    private static Unit built(FutureTask<Unit> task) {
+        if (!task.isDone()) {
+            return null;
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException | CancellationException | InterruptedException e) {
+            return null;
+        }
+    }
+
+    private static Unit await(Key key, FutureTask<Unit> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    // like the bootstrap itself, waiting for it isn't interruptible
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // the next call tries again
+                    UNITS.remove(key, task);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Persistence unit " + key + " could not be bootstrapped", cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Unit bootstrap(Key key) {
+        long start = System.nanoTime();
+        EntityManagerFactory factory = Persistence.createEntityManagerFactory(key.unitName, key.overrides);
+        Duration bootstrapTime = Duration.ofNanos(System.nanoTime() - start);
+        LOG.info(() -> "Persistence unit " + key + " bootstrapped in " + bootstrapTime.toMillis() + " ms");
+        return new Unit(factory, bootstrapTime);
+    }
+
+    private static final class Unit {
+        private final EntityManagerFactory factory;
+        private final Duration bootstrapTime;
+
+        private Unit(EntityManagerFactory factory, Duration bootstrapTime) {
+            this.factory = factory;
+            this.bootstrapTime = bootstrapTime;
+        }
+
+        private void close() {
+            if (factory.isOpen()) {
+                factory.close();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String unitName;
+        private final Map<String, Object> overrides;
+
+        private Key(String unitName, Map<String, ?> overrides) {
+            this.unitName = unitName;
+            this.overrides = Collections.unmodifiableMap(new TreeMap<>(overrides));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return unitName.equals(key.unitName) && overrides.equals(key.overrides);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * unitName.hashCode() + overrides.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return overrides.isEmpty() ? unitName : unitName + " " + overrides;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.example.common.bulk;
+
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.PostInsertIdentifierGenerator;
+import org.hibernate.jpa.event.spi.CallbackRegistry;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.hibernate.type.Type;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TransactionRequiredException;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Hibernate can't batch the INSERTs of entities with GenerationType.IDENTITY, it needs the generated
+id of every row right away, so em.persist() of a million products is a million round-trips.
+
+BulkInserter writes them with multi-row INSERTs (insert into ... values (...), (...), ...) of
+hibernate.jdbc.batch_size rows each and reads the generated ids back with getGeneratedKeys().
+Entities are grouped by type in the order the types are first met (like hibernate.order_inserts),
+so parents passed before their children are inserted first.
+
+The inserted entities are NOT managed afterwards, they are like entities read in another
+EntityManager: they have their id but changing them does nothing.
+Entities spread over several tables (secondary tables, inheritance) and versioned entities
+are handed to em.persist() and flushed every batch_size entities instead.
+ */
+public class BulkInserter {
+    private static final int DEFAULT_BATCH_SIZE = 50;
+
+    private final SessionImplementor session;
+    private final int batchSize;
+    private final Map<EntityPersister, InsertPlan> plans = new HashMap<>();
+
+    public BulkInserter(EntityManager em) {
+        this(em, 0);
+    }
+
+    public BulkInserter(EntityManager em, int batchSize) {
+        this.session = em.unwrap(SessionImplementor.class);
+        int configured = batchSize > 0 ? batchSize : session.getFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        this.batchSize = configured > 0 ? configured : DEFAULT_BATCH_SIZE;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int insert(Collection<?> entities) {
+        if (!session.isTransactionInProgress()) {
+            throw new TransactionRequiredException("Bulk inserts have to run inside a transaction");
+        }
+
+        Map<EntityPersister, List<Object>> byType = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            EntityPersister persister = session.getEntityPersister(null, entity);
+            byType.computeIfAbsent(persister, p -> new ArrayList<>()).add(entity);
+        }
+
+        // whatever is pending in the persistence context goes first, our rows may reference it
+        session.flush();
+
+        int inserted = 0;
+        for (Map.Entry<EntityPersister, List<Object>> entry : byType.entrySet()) {
+            EntityPersister persister = entry.getKey();
+            if (isSupported(persister)) {
+                InsertPlan plan = plans.computeIfAbsent(persister, p -> new InsertPlan((AbstractEntityPersister) p));
+                inserted += plan.insert(entry.getValue());
+            } else {
+                inserted += persistInBatches(entry.getValue());
+            }
+        }
+        return inserted;
+    }
+
+    private boolean isSupported(EntityPersister persister) {
+        if (!(persister instanceof AbstractEntityPersister)) {
+            return false;
+        }
+        EntityMetamodel metamodel = persister.getEntityMetamodel();
+        return !((AbstractEntityPersister) persister).isMultiTable()
+                && !metamodel.isInherited()
+                && !metamodel.hasSubclasses()
+                && !metamodel.isVersioned();
+    }
+
+    private int persistInBatches(List<Object> entities) {
+        List<Object> batch = new ArrayList<>(batchSize);
+        for (Object entity : entities) {
+            session.persist(entity);
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        return entities.size();
+    }
+
+    private void flushAndDetach(List<Object> batch) {
+        session.flush();
+        batch.forEach(session::detach);
+        batch.clear();
+    }
+
+    private final class InsertPlan {
+        private final AbstractEntityPersister persister;
+        private final boolean identity;
+        private final int[] properties;
+        private final String insertPrefix;
+        private final String rowValues;
+        private final Map<Integer, String> sqlByRowCount = new HashMap<>();
+
+        private InsertPlan(AbstractEntityPersister persister) {
+            this.persister = persister;
+            this.identity = persister.getIdentifierGenerator() instanceof PostInsertIdentifierGenerator;
+
+            List<String> columns = new ArrayList<>();
+            if (!identity) {
+                Collections.addAll(columns, persister.getIdentifierColumnNames());
+            }
+            boolean[] insertable = persister.getPropertyInsertability();
+            Type[] types = persister.getPropertyTypes();
+            List<Integer> bound = new ArrayList<>();
+            for (int i = 0; i < types.length; i++) {
+                String[] propertyColumns = persister.getPropertyColumnNames(i);
+                if (insertable[i] && !types[i].isCollectionType() && propertyColumns.length > 0) {
+                    Collections.addAll(columns, propertyColumns);
+                    bound.add(i);
+                }
+            }
+            this.properties = bound.stream().mapToInt(Integer::intValue).toArray();
+            this.insertPrefix = "insert into " + persister.getRootTableName() + " (" + String.join(", ", columns) + ") values ";
+            this.rowValues = "(" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        }
+
+        private int insert(List<Object> entities) {
+            SessionFactoryImplementor factory = session.getFactory();
+            int rowsPerStatement = factory.getJdbcServices().getDialect().supportsValuesList() ? batchSize : 1;
+            CallbackRegistry callbacks = JpaCallbacks.of(factory);
+
+            for (int from = 0; from < entities.size(); from += rowsPerStatement) {
+                List<Object> chunk = entities.subList(from, Math.min(from + rowsPerStatement, entities.size()));
+                chunk.forEach(callbacks::preCreate);
+                execute(chunk);
+            }
+
+            // same clean-up Hibernate does after a native bulk statement: query cache and L2 regions of the table
+            session.getActionQueue().addAction(new BulkOperationCleanupAction(session, persister));
+            return entities.size();
+        }
+
+        private void execute(List<Object> rows) {
+            String sql = sqlByRowCount.computeIfAbsent(rows.size(),
+                    count -> insertPrefix + String.join(", ", Collections.nCopies(count, rowValues)));
+            JdbcCoordinator jdbc = session.getJdbcCoordinator();
+            PreparedStatement ps = identity
+                    ? jdbc.getStatementPreparer().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : jdbc.getStatementPreparer().prepareStatement(sql);
+            try {
+                int index = 1;
+                for (Object entity : rows) {
+                    index = bind(ps, entity, index);
+                }
+                jdbc.getResultSetReturn().executeUpdate(ps);
+                if (identity) {
+                    readGeneratedKeys(ps, rows);
+                }
+            } catch (SQLException e) {
+                throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "could not execute bulk insert", sql);
+            } finally {
+                jdbc.getLogicalConnection().getResourceRegistry().release(ps);
+                jdbc.afterStatementExecution();
+            }
+        }
+
+        private int bind(PreparedStatement ps, Object entity, int index) throws SQLException {
+            SessionFactoryImplementor factory = session.getFactory();
+            if (!identity) {
+                Serializable id = persister.getIdentifierGenerator().generate(session, entity);
+                persister.setIdentifier(entity, id, (SharedSessionContractImplementor) session);
+                Type idType = persister.getIdentifierType();
+                idType.nullSafeSet(ps, id, index, session);
+                index += idType.getColumnSpan(factory);
+            }
+            Object[] values = persister.getPropertyValues(entity);
+            Type[] types = persister.getPropertyTypes();
+            for (int property : properties) {
+                types[property].nullSafeSet(ps, values[property], index, session);
+                index += types[property].getColumnSpan(factory);
+            }
+            return index;
+        }
+
+        private void readGeneratedKeys(PreparedStatement ps, List<Object> rows) throws SQLException {
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Object entity : rows) {
+                    if (!keys.next()) {
+                        throw new SQLException("The driver returned fewer generated keys than inserted rows");
+                    }
+                    Serializable id = IdentifierGeneratorHelper.get(keys, persister.getIdentifierPropertyName(),
+                            persister.getIdentifierType(), session.getJdbcServices().getDialect());
+                    persister.setIdentifier(entity, id, (SharedSessionContractImplementor) session);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.common.bulk;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.TransactionRequiredException;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Set-based UPDATE and DELETE (one JPQL statement for all the rows) for entities whose timestamps are kept by
+callbacks. Loading and changing the entities one by one calls @PreUpdate for each of them, a bulk statement
+doesn't, so every UPDATE also sets the @ModifiedTimestamp attributes to the same "now":
+
+    BulkResult result = new BulkMutator(em).update(Product.class,
+            "e.name = :name", "e.name LIKE :old", Map.of("name", "Renamed", "old", "Product%"));
+    // UPDATE org.example.entities.Product e SET e.name = :name, e.lastModified = :bulkNow_lastModified WHERE e.name LIKE :old
+
+The alias of the entity is always e. Before the statement the pending changes are flushed, after it the managed
+instances of the type are detached, they don't know about the new values. Hibernate evicts the L2 cache region
+of the entity (and the query cache of its table) when the transaction completes.
+@PreRemove / @PostRemove callbacks are not called for bulk DELETEs.
+ */
+public class BulkMutator {
+    private static final String NOW = "bulkNow_";
+    private static final Map<Class<?>, List<Field>> TIMESTAMPS = new ConcurrentHashMap<>();
+
+    private final EntityManager em;
+    private final SessionImplementor session;
+
+    public BulkMutator(EntityManager em) {
+        this.em = em;
+        this.session = em.unwrap(SessionImplementor.class);
+    }
+
+    public BulkResult update(Class<?> entityClass, String set, String where, Map<String, ?> parameters) {
+        StringBuilder jpql = new StringBuilder("UPDATE ").append(entityClass.getName()).append(" e SET ").append(set);
+        List<Field> timestamps = TIMESTAMPS.computeIfAbsent(entityClass, BulkMutator::timestamps);
+        for (Field timestamp : timestamps) {
+            jpql.append(", e.").append(timestamp.getName()).append(" = :").append(NOW).append(timestamp.getName());
+        }
+        if (where != null) {
+            jpql.append(" WHERE ").append(where);
+        }
+        return execute(entityClass, jpql.toString(), parameters, timestamps);
+    }
+
+    public BulkResult delete(Class<?> entityClass, String where, Map<String, ?> parameters) {
+        String jpql = "DELETE FROM " + entityClass.getName() + " e" + (where != null ? " WHERE " + where : "");
+        return execute(entityClass, jpql, parameters, List.of());
+    }
+
+    private BulkResult execute(Class<?> entityClass, String jpql, Map<String, ?> parameters, List<Field> timestamps) {
+        if (!session.isTransactionInProgress()) {
+            throw new TransactionRequiredException("Bulk updates and deletes have to run inside a transaction");
+        }
+        session.flush();
+
+        long start = System.nanoTime();
+        Query query = em.createQuery(jpql);
+        parameters.forEach(query::setParameter);
+        LocalDateTime now = LocalDateTime.now();
+        for (Field timestamp : timestamps) {
+            query.setParameter(NOW + timestamp.getName(), now(timestamp.getType(), now));
+        }
+        int rows = query.executeUpdate();
+        long nanos = System.nanoTime() - start;
+
+        detachManaged(entityClass);
+        return new BulkResult(jpql, rows, nanos);
+    }
+
+    private void detachManaged(Class<?> entityClass) {
+        List<Object> stale = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entityClass.isInstance(entry.getKey())) {
+                stale.add(entry.getKey());
+            }
+        }
+        stale.forEach(em::detach);
+    }
+
+    private static List<Field> timestamps(Class<?> entityClass) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ModifiedTimestamp.class)) {
+                    now(field.getType(), LocalDateTime.now()); // fails early on an unsupported type
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static Object now(Class<?> type, LocalDateTime now) {
+        if (type == LocalDateTime.class) {
+            return now;
+        }
+        if (type == Instant.class) {
+            return now.atZone(ZoneId.systemDefault()).toInstant();
+        }
+        if (type == Date.class) {
+            return Date.from(now.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        throw new PersistenceException("@ModifiedTimestamp is not supported on " + type.getName());
+    }
+
+    public static final class BulkResult {
+        private final String jpql;
+        private final int rows;
+        private final long nanos;
+
+        private BulkResult(String jpql, int rows, long nanos) {
+            this.jpql = jpql;
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+
+        public String getJpql() {
+            return jpql;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return rows + " row(s) in " + getMillis() + " ms: " + jpql;
+        }
+    }
+}
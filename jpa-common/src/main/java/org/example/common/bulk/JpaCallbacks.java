@@ -0,0 +1,52 @@
+package org.example.common.bulk;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.ClearEvent;
+import org.hibernate.event.spi.ClearEventListener;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.jpa.event.spi.CallbackRegistry;
+import org.hibernate.jpa.event.spi.CallbackRegistryConsumer;
+
+/*
+Rows written by BulkInserter never go through em.persist(), so their @PrePersist callbacks are run from here with
+the CallbackRegistry of the unit: the same callbacks em.persist() runs, from annotations and orm.xml, default
+listeners and @ExcludeSuperclassListeners / @ExcludeDefaultListeners included.
+
+Hibernate only hands its registry to the event listeners it is given, so a listener that does nothing is added
+to the CLEAR events of the unit, once, to get it.
+ */
+final class JpaCallbacks {
+    private JpaCallbacks() {
+    }
+
+    static synchronized CallbackRegistry of(SessionFactoryImplementor factory) {
+        EventListenerGroup<ClearEventListener> group = factory.getServiceRegistry()
+                .getService(EventListenerRegistry.class).getEventListenerGroup(EventType.CLEAR);
+        for (ClearEventListener listener : group.listeners()) {
+            if (listener instanceof RegistryHolder) {
+                return ((RegistryHolder) listener).registry;
+            }
+        }
+        RegistryHolder holder = new RegistryHolder();
+        group.appendListener(holder);
+        if (holder.registry == null) {
+            throw new IllegalStateException("Hibernate did not hand over the JPA callbacks of the unit");
+        }
+        return holder.registry;
+    }
+
+    private static final class RegistryHolder implements ClearEventListener, CallbackRegistryConsumer {
+        private volatile CallbackRegistry registry;
+
+        @Override
+        public void injectCallbackRegistry(CallbackRegistry callbackRegistry) {
+            this.registry = callbackRegistry;
+        }
+
+        @Override
+        public void onClear(ClearEvent event) {
+        }
+    }
+}
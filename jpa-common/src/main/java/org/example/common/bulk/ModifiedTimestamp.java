@@ -0,0 +1,15 @@
+package org.example.common.bulk;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+Marks the attribute a @PreUpdate callback sets to "now". Bulk UPDATEs never call @PreUpdate, BulkMutator sets
+the marked attributes in the statement instead (LocalDateTime, Instant or java.util.Date).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ModifiedTimestamp {
+}
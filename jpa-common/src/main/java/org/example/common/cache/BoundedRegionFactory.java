@@ -0,0 +1,122 @@
+package org.example.common.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+A second-level cache living in the JVM, without ehcache or any other library, in persistence.xml:
+
+    <property name="hibernate.cache.use_second_level_cache" value="true" />
+    <property name="hibernate.cache.region.factory_class" value="org.example.common.cache.BoundedRegionFactory" />
+    <property name="example.cache.max_entries" value="10000" />
+    <property name="example.cache.ttl_seconds" value="300" />
+
+Both settings can be given per region, e.g. example.cache.max_entries.org.example.entities.Product=500.
+Every region (one per @Cacheable entity hierarchy, plus the query cache) counts its hits, misses and
+evictions and is registered in JMX as org.example.common.cache:type=CacheRegion,name=<region name>.
+The timestamps region is never bounded, dropping entries from it would make the query cache return stale results.
+ */
+public class BoundedRegionFactory extends RegionFactoryTemplate {
+    public static final String MAX_ENTRIES = "example.cache.max_entries";
+    public static final String TTL_SECONDS = "example.cache.ttl_seconds";
+
+    private static final Logger LOG = Logger.getLogger(BoundedRegionFactory.class.getName());
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final Map<String, BoundedStorageAccess> regions = new ConcurrentHashMap<>();
+    private final Map<String, ObjectName> objectNames = new ConcurrentHashMap<>();
+    private Map settings = Collections.emptyMap();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map configValues) {
+        settings = configValues;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return createRegion(regionConfig.getRegionName(), maxEntries(regionConfig.getRegionName()), ttlSeconds(regionConfig.getRegionName()));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return createRegion(regionName, maxEntries(regionName), ttlSeconds(regionName));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return createRegion(regionName, 0, 0);
+    }
+
+    /*
+    Statistics of every region built so far, by region name.
+     */
+    public Map<String, CacheRegionMXBean> getRegionStatistics() {
+        return Collections.unmodifiableMap(regions);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : objectNames.values()) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.log(Level.FINE, "Could not unregister " + objectName, e);
+            }
+        }
+        objectNames.clear();
+        regions.values().forEach(BoundedStorageAccess::release);
+        regions.clear();
+    }
+
+    private BoundedStorageAccess createRegion(String regionName, long maxEntries, long ttlSeconds) {
+        BoundedStorageAccess region = new BoundedStorageAccess(regionName, maxEntries, ttlSeconds);
+        regions.put(regionName, region);
+        objectNames.put(regionName, register(region));
+        return region;
+    }
+
+    private long maxEntries(String regionName) {
+        return ConfigurationHelper.getInt(MAX_ENTRIES + "." + regionName, settings,
+                ConfigurationHelper.getInt(MAX_ENTRIES, settings, DEFAULT_MAX_ENTRIES));
+    }
+
+    private long ttlSeconds(String regionName) {
+        return ConfigurationHelper.getInt(TTL_SECONDS + "." + regionName, settings,
+                ConfigurationHelper.getInt(TTL_SECONDS, settings, 0));
+    }
+
+    private static ObjectName register(BoundedStorageAccess region) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = "org.example.common.cache:type=CacheRegion,name=" + ObjectName.quote(region.getRegionName());
+            ObjectName objectName = new ObjectName(name);
+            // the same unit can be bootstrapped more than once (e.g. with different overrides)
+            for (int i = 2; server.isRegistered(objectName); i++) {
+                objectName = new ObjectName(name + ",instance=" + i);
+            }
+            server.registerMBean(region, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new CacheException("Could not register cache region " + region.getRegionName() + " in JMX", e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.example.common.cache;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+The storage of one cache region: at most maxEntries entries, each one living at most ttlSeconds.
+
+The entries are split over a few segments, each one an LRU LinkedHashMap with its own lock,
+so readers of different keys rarely wait for each other. When a segment is full its least
+recently used entry is evicted, so the region as a whole is only approximately LRU.
+maxEntries <= 0 means unbounded and ttlSeconds <= 0 means entries never expire.
+ */
+public class BoundedStorageAccess implements DomainDataStorageAccess, CacheRegionMXBean {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final String regionName;
+    private final long maxEntries;
+    private final long ttlSeconds;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedStorageAccess(String regionName, long maxEntries, long ttlSeconds) {
+        this.regionName = regionName;
+        this.maxEntries = maxEntries;
+        this.ttlSeconds = ttlSeconds;
+        this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : 0;
+
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && (maxEntries <= 0 || segmentCount * 2 <= maxEntries)) {
+            segmentCount <<= 1;
+        }
+        // rounded down, the region never holds more than maxEntries
+        long perSegment = maxEntries > 0 ? Math.max(1, maxEntries / segmentCount) : Long.MAX_VALUE;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    private Object read(Object key, boolean count) {
+        Segment segment = segmentFor(key);
+        Object value = null;
+        synchronized (segment) {
+            CachedValue cached = segment.get(key);
+            if (cached != null) {
+                if (cached.isExpired(System.nanoTime())) {
+                    segment.remove(key);
+                    expirations.increment();
+                } else {
+                    value = cached.value;
+                }
+            }
+        }
+        if (count) {
+            (value != null ? hits : misses).increment();
+        }
+        return value;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return read(key, true);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        Segment segment = segmentFor(key);
+        CachedValue cached = new CachedValue(value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        synchronized (segment) {
+            segment.put(key, cached);
+        }
+        puts.increment();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return read(key, false) != null;
+    }
+
+    @Override
+    public void evictData() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    @Override
+    public String getRegionName() {
+        return regionName;
+    }
+
+    @Override
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getTimeToLiveSeconds() {
+        return ttlSeconds;
+    }
+
+    @Override
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public void clear() {
+        evictData();
+    }
+
+    private static final class CachedValue {
+        private final Object value;
+        private final long expiresAt;
+
+        private CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt > 0;
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Object, CachedValue> {
+        private final long capacity;
+
+        private Segment(long capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CachedValue> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.common.cache;
+
+/*
+What every region of BoundedRegionFactory exports through JMX,
+under org.example.common.cache:type=CacheRegion,name=<region name>
+ */
+public interface CacheRegionMXBean {
+
+    String getRegionName();
+
+    long getMaxEntries();
+
+    long getTimeToLiveSeconds();
+
+    long getSize();
+
+    long getHits();
+
+    long getMisses();
+
+    long getPuts();
+
+    long getEvictions();
+
+    long getExpirations();
+
+    double getHitRatio();
+
+    void clear();
+}
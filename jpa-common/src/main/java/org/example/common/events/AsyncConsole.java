@@ -0,0 +1,80 @@
+package org.example.common.events;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/*
+System.out.println() for code on the hot path (entity callbacks, loops over thousands of rows): the line goes
+into an EventPipeline and a background thread prints the lines in batches, one write to System.out per batch.
+The caller never waits on the stdout lock; if the printing can't keep up, it waits for free slots rather than
+losing lines.
+
+    AsyncConsole.println("Entity " + this + " was loaded!");
+
+The lines are printed in the order they were published, what is left is printed when the JVM exits.
+-Dexample.console.sync=true prints right away, on the caller thread, like System.out.println.
+setEnabled(false) drops the lines, e.g. while a benchmark measures code that prints.
+ */
+public final class AsyncConsole {
+    private static final int CAPACITY = Integer.getInteger("example.console.capacity", 65_536);
+    private static final int BATCH_SIZE = 1024;
+
+    private static volatile boolean synchronous = Boolean.getBoolean("example.console.sync");
+    private static volatile boolean enabled = true;
+    private static final EventPipeline<String> PIPELINE =
+            new EventPipeline<>("async-console", CAPACITY, BATCH_SIZE, EventPipeline.Overflow.WAIT, AsyncConsole::print);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PIPELINE::close, "async-console-shutdown"));
+    }
+
+    private AsyncConsole() {
+    }
+
+    public static void println(String line) {
+        if (!enabled) {
+            return;
+        }
+        if (synchronous) {
+            System.out.println(line);
+        } else {
+            PIPELINE.publish(line);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /* the lines published before are still printed */
+    public static void setEnabled(boolean enabled) {
+        AsyncConsole.enabled = enabled;
+    }
+
+    public static void setSynchronous(boolean synchronous) {
+        if (synchronous) {
+            PIPELINE.flush();
+        }
+        AsyncConsole.synchronous = synchronous;
+    }
+
+    /* waits until the lines published so far are printed */
+    public static void flush() {
+        PIPELINE.flush();
+    }
+
+    public static EventPipeline<String> pipeline() {
+        return PIPELINE;
+    }
+
+    private static void print(List<String> lines) {
+        StringBuilder text = new StringBuilder(lines.size() * 80);
+        String separator = System.lineSeparator();
+        for (String line : lines) {
+            text.append(line).append(separator);
+        }
+        PrintStream out = System.out;
+        out.print(text);
+        out.flush();
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.common.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Events published from any thread, handled on one background thread in batches:
+- publish() puts the event in a RingBuffer, a CAS and no lock, the publisher never runs the handler
+- the consumer thread drains up to batchSize events at a time and hands them to the handler as one List
+- when the buffer is full (the handler can't keep up) the publisher waits for free slots (Overflow.WAIT, the
+  backpressure) or the event is counted as dropped (Overflow.DROP)
+close() handles what is left in the buffer before returning, flush() waits until everything published so far
+was handled.
+ */
+public class EventPipeline<E> implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(EventPipeline.class.getName());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    public enum Overflow {
+        WAIT, DROP
+    }
+
+    private final RingBuffer<E> buffer;
+    private final int batchSize;
+    private final Overflow overflow;
+    private final Consumer<List<E>> handler;
+    private final Thread consumer;
+    private volatile boolean closed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int maxBatch;
+
+    public EventPipeline(String name, int capacity, int batchSize, Overflow overflow, Consumer<List<E>> handler) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.overflow = overflow;
+        this.handler = handler;
+        this.consumer = new Thread(this::consume, name);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /* false when the event was dropped (Overflow.DROP and a full buffer, or a closed pipeline) */
+    public boolean publish(E event) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        if (!buffer.offer(event)) {
+            if (overflow == Overflow.DROP) {
+                dropped.increment();
+                return false;
+            }
+            waits.increment();
+            while (!buffer.offer(event)) {
+                if (closed) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+        }
+        published.increment();
+        return true;
+    }
+
+    public void flush() {
+        long target = published.sum();
+        while (handled.get() < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        List<E> batch = new ArrayList<>(batchSize);
+        while (true) {
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained == 0) {
+                if (closed && buffer.size() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "The event handler of " + consumer.getName() + " failed on a batch of " + drained, e);
+            }
+            batch.clear();
+            batches.incrementAndGet();
+            maxBatch = Math.max(maxBatch, drained);
+            handled.addAndGet(drained);
+        }
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getHandled() {
+        return handled.get();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /* how many times a publisher found the buffer full and had to wait */
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    @Override
+    public String toString() {
+        return consumer.getName() + ": published=" + getPublished() + " handled=" + getHandled()
+                + " dropped=" + getDropped() + " waits=" + getWaits() + " batches=" + getBatches()
+                + " maxBatch=" + getMaxBatch();
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.common.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+A bounded, lock-free queue for many producers and one consumer (D. Vyukov's bounded queue): every slot has a
+sequence number telling whether it is free for the producer of a given position or ready for the consumer.
+A producer claims a position with one CAS, a full buffer is reported to it (offer returns false) instead of
+blocking it, what to do then is up to the caller (EventPipeline waits or drops).
+
+The capacity is rounded up to a power of two.
+ */
+public final class RingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong(); // next position to read
+    private final AtomicLong tail = new AtomicLong(); // next position to write
+
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    sequences.set(slot, position + 1); // ready for the consumer
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // full: the slot still holds the element of the previous lap
+            }
+            // another producer took this position, try the next one
+        }
+    }
+
+    /* single consumer only */
+    public int drainTo(List<? super E> batch, int max) {
+        int drained = 0;
+        long position = head.get();
+        while (drained < max) {
+            int slot = (int) position & mask;
+            if (sequences.get(slot) != position + 1) {
+                break; // empty, or the producer of this position hasn't finished writing
+            }
+            batch.add(elements.get(slot));
+            elements.lazySet(slot, null);
+            sequences.set(slot, position + mask + 1); // free for the producer of the next lap
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.common.export;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+RFC 4180 CSV: a header with the column names, values containing a comma, a quote or a line break are
+quoted and their quotes doubled, null is written as an empty value.
+
+    Map<String, Function<Product, Object>> columns = new LinkedHashMap<>();
+    columns.put("id", Product::getId);
+    columns.put("name", Product::getName);
+    new CsvFormat<>(columns);
+ */
+public class CsvFormat<T> implements ExportFormat<T> {
+    private final List<Function<T, Object>> values;
+    private final String header;
+
+    public CsvFormat(Map<String, Function<T, Object>> columns) {
+        Map<String, Function<T, Object>> copy = new LinkedHashMap<>(columns);
+        this.values = new ArrayList<>(copy.values());
+        this.header = String.join(",", escape(new ArrayList<>(copy.keySet())));
+    }
+
+    @Override
+    public String header() {
+        return header;
+    }
+
+    @Override
+    public String format(T row) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values.get(i).apply(row);
+            if (value != null) {
+                line.append(escape(value.toString()));
+            }
+        }
+        return line.toString();
+    }
+
+    private static List<String> escape(List<String> names) {
+        List<String> escaped = new ArrayList<>(names.size());
+        for (String name : names) {
+            escaped.add(escape(name));
+        }
+        return escaped;
+    }
+
+    private static String escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
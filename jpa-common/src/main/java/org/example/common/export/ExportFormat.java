@@ -0,0 +1,18 @@
+package org.example.common.export;
+
+/*
+Turns one entity into one line of the export, CsvFormat and NdjsonFormat are the two we have.
+Implementations are called from several threads at once, so they must not keep state.
+ */
+public interface ExportFormat<T> {
+
+    /*
+    The first line of the file, or null when the format has none.
+     */
+    String header();
+
+    /*
+    One line, without the line separator.
+     */
+    String format(T row);
+}
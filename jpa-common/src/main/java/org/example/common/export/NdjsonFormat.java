@@ -0,0 +1,81 @@
+package org.example.common.export;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+Newline delimited JSON: one JSON object per line, no header.
+Numbers and booleans are written as JSON numbers and booleans, everything else as strings (toString()).
+ */
+public class NdjsonFormat<T> implements ExportFormat<T> {
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<T, Object>> values = new ArrayList<>();
+
+    public NdjsonFormat(Map<String, Function<T, Object>> columns) {
+        new LinkedHashMap<>(columns).forEach((name, value) -> {
+            names.add(quote(name));
+            values.add(value);
+        });
+    }
+
+    @Override
+    public String header() {
+        return null;
+    }
+
+    @Override
+    public String format(T row) {
+        StringBuilder line = new StringBuilder("{");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(names.get(i)).append(':');
+            Object value = values.get(i).apply(row);
+            if (value == null || value instanceof Boolean) {
+                line.append(value);
+            } else if (value instanceof Number) {
+                // NaN and Infinity don't exist in JSON
+                boolean finite = !(value instanceof Double || value instanceof Float) || Double.isFinite(((Number) value).doubleValue());
+                line.append(finite ? value.toString() : "null");
+            } else {
+                line.append(quote(value.toString()));
+            }
+        }
+        return line.append('}').toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.common.export;
+
+import org.example.common.stream.ResultStreams;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+Exports a whole table with several threads:
+- the id range [min(id), max(id)] is split in partitions (4 per thread, so a thread done early takes another one)
+- every partition is read by its own EntityManager, so its own connection, through ResultStreams
+- the lines are formatted by the worker and written to the output in chunks, partitions are not in id order
+  in the output, the lines of one chunk are
+
+    long rows = new PartitionedExporter<>(emf, Product.class, "id", 8).export(new CsvFormat<>(columns), writer);
+
+The id must be a number. More threads than the connection pool has connections only makes them wait.
+ */
+public class PartitionedExporter<T> {
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int LINES_PER_CHUNK = 1000;
+
+    private final EntityManagerFactory emf;
+    private final Class<T> entityClass;
+    private final String idAttribute;
+    private final int threads;
+    private int fetchSize = ResultStreams.DEFAULT_FETCH_SIZE;
+
+    public PartitionedExporter(EntityManagerFactory emf, Class<T> entityClass, String idAttribute, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.emf = emf;
+        this.entityClass = entityClass;
+        this.idAttribute = idAttribute;
+        this.threads = threads;
+    }
+
+    public PartitionedExporter<T> setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /*
+    Writes the header of the format and every row of the table to out, returns the number of rows.
+    out is not closed.
+     */
+    public long export(ExportFormat<T> format, Writer out) throws IOException {
+        String header = format.header();
+        if (header != null) {
+            out.write(header);
+            out.write('\n');
+        }
+
+        List<Range> partitions = partitions();
+        if (partitions.isEmpty()) {
+            return 0;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, partitions.size()), r -> {
+            Thread thread = new Thread(r, "export-" + entityClass.getSimpleName() + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ExecutorCompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Long>> futures = new ArrayList<>();
+        try {
+            for (Range range : partitions) {
+                futures.add(completion.submit(() -> exportRange(range, format, out)));
+            }
+            long rows = 0;
+            // in completion order, so the first failure stops everything right away
+            for (int i = 0; i < futures.size(); i++) {
+                rows += completion.take().get();
+            }
+            out.flush();
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Export of " + entityClass.getSimpleName() + " was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PersistenceException("Export of " + entityClass.getSimpleName() + " failed", cause);
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Range> partitions() {
+        EntityManager em = emf.createEntityManager();
+        Object[] bounds;
+        try {
+            bounds = em.createQuery("SELECT min(e." + idAttribute + "), max(e." + idAttribute + ") FROM "
+                    + entityName(em) + " e", Object[].class).getSingleResult();
+        } finally {
+            em.close();
+        }
+        List<Range> partitions = new ArrayList<>();
+        if (bounds[0] == null) {
+            return partitions;
+        }
+        long min = ((Number) bounds[0]).longValue();
+        long max = ((Number) bounds[1]).longValue();
+        Class<?> idType = bounds[0].getClass();
+
+        long count = (long) threads * PARTITIONS_PER_THREAD;
+        // + 1 and / count without overflow, the id range can be close to Long.MAX_VALUE wide
+        long size = Math.max(1, max / count - min / count + 1);
+        for (long from = min; from <= max; from += size) {
+            long to = max - from < size ? max : from + size - 1;
+            partitions.add(new Range(toIdType(from, idType), toIdType(to, idType)));
+            if (to == max) {
+                break;
+            }
+        }
+        return partitions;
+    }
+
+    private long exportRange(Range range, ExportFormat<T> format, Writer out) {
+        EntityManager em = emf.createEntityManager();
+        try (Stream<T> rows = ResultStreams.stream(em, em.createQuery("SELECT e FROM " + entityName(em) + " e WHERE e."
+                        + idAttribute + " BETWEEN :from AND :to ORDER BY e." + idAttribute, entityClass)
+                .setParameter("from", range.from)
+                .setParameter("to", range.to), fetchSize, fetchSize)) {
+            StringBuilder chunk = new StringBuilder();
+            int lines = 0;
+            long count = 0;
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new PersistenceException("Export of " + entityClass.getSimpleName() + " was cancelled");
+                }
+                chunk.append(format.format(it.next())).append('\n');
+                count++;
+                if (++lines == LINES_PER_CHUNK) {
+                    write(out, chunk);
+                    lines = 0;
+                }
+            }
+            write(out, chunk);
+            return count;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void write(Writer out, StringBuilder chunk) {
+        if (chunk.length() == 0) {
+            return;
+        }
+        try {
+            synchronized (out) {
+                out.append(chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.setLength(0);
+    }
+
+    private String entityName(EntityManager em) {
+        return em.getMetamodel().entity(entityClass).getName();
+    }
+
+    private static Object toIdType(long id, Class<?> idType) {
+        if (idType == Integer.class) {
+            return (int) id;
+        }
+        if (idType == Short.class) {
+            return (short) id;
+        }
+        if (idType == Byte.class) {
+            return (byte) id;
+        }
+        if (idType == Long.class) {
+            return id;
+        }
+        throw new IllegalArgumentException("Can't partition on an id of type " + idType.getName());
+    }
+
+    private static final class Range {
+        private final Object from;
+        private final Object to;
+
+        private Range(Object from, Object to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.common.inheritance;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+The code of an entity class in its hierarchy, from 0 to SubtypeRouter.SLOTS - 1, unique in the hierarchy.
+SubtypeIdGenerator puts it in the last two digits of the ids, SubtypeRouter reads it back.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface SubtypeCode {
+    int value();
+}
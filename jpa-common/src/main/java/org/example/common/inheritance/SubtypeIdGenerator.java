@@ -0,0 +1,35 @@
+package org.example.common.inheritance;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.enhanced.TableGenerator;
+
+import java.io.Serializable;
+
+/*
+Ids unique across a whole hierarchy that also tell the subtype of the row: one sequence for the hierarchy
+(Hibernate's table generator, pooled) times SubtypeRouter.SLOTS plus the @SubtypeCode of the entity class.
+With TABLE_PER_CLASS the subtype tables don't share a primary key, this keeps the ids from colliding and lets
+SubtypeRouter go straight to the right table.
+
+    @Id
+    @GeneratedValue(generator = "employee_id")
+    @GenericGenerator(name = "employee_id", strategy = "org.example.common.inheritance.SubtypeIdGenerator",
+            parameters = @Parameter(name = "segment_value", value = "employee"))
+    private Long id;
+
+The parameters are the ones of org.hibernate.id.enhanced.TableGenerator (table_name, segment_value,
+increment_size...), the id has to be a Long.
+ */
+public class SubtypeIdGenerator extends TableGenerator {
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object entity) {
+        long sequence = ((Number) super.generate(session, entity)).longValue();
+        Integer code = SubtypeRouter.code(entity.getClass());
+        if (code == null) {
+            throw new IdentifierGenerationException(entity.getClass().getName() + " has no @SubtypeCode");
+        }
+        return SubtypeRouter.id(sequence, code);
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.common.inheritance;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.JoinedSubclassEntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Loads the entities of a JOINED hierarchy by id without the outer join to every subclass table.
+
+A polymorphic SELECT p FROM Product p WHERE p.id IN :ids left outer joins all the subclass tables, whatever the
+rows really are, and it gets slower with each new subtype. Here it is done in two steps:
+- the type index: SELECT id, <discriminator> FROM <root table> WHERE id IN (...), the root table alone
+- for each subtype found, SELECT e FROM <Subtype> e WHERE e.id IN :ids, an inner join of the subtype tables only
+
+The root entity needs an explicit @DiscriminatorColumn (JOINED does not need one, Hibernate writes it when it is
+declared), an index on (discriminator, id) keeps the first step on the index. Rows of the root type itself are
+loaded with the polymorphic query, Hibernate has no way to read the root table alone for them, and so are the rows
+with a NULL discriminator (written before the column existed or without Hibernate). Hibernate generates the
+column NOT NULL, give it the root's value as its default for the rows inserted without Hibernate.
+
+    List<Product> products = SubtypeLoader.load(em, Product.class, ids);
+
+The result follows the order of the ids, missing ids are skipped.
+ */
+public final class SubtypeLoader {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private SubtypeLoader() {
+    }
+
+    public static <T> List<T> load(EntityManager em, Class<T> root, Collection<?> ids) {
+        return load(em, root, ids, DEFAULT_BATCH_SIZE);
+    }
+
+    public static <T> List<T> load(EntityManager em, Class<T> root, Collection<?> ids, int batchSize) {
+        AbstractEntityPersister persister = joinedPersister(em, root);
+        List<Object> idList = new ArrayList<>(ids);
+
+        Map<String, List<Object>> idsBySubtype = new LinkedHashMap<>();
+        String typeIndex = "SELECT " + persister.getIdentifierColumnNames()[0] + ", "
+                + persister.getDiscriminatorColumnName() + " FROM " + persister.getTableName()
+                + " WHERE " + persister.getIdentifierColumnNames()[0] + " IN (:ids)";
+        for (List<Object> batch : batches(idList, batchSize)) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery(typeIndex).setParameter("ids", batch).getResultList();
+            for (Object[] row : rows) {
+                String subtype = row[1] == null ? persister.getEntityName()
+                        : persister.getSubclassForDiscriminatorValue(row[1]);
+                if (subtype == null) {
+                    throw new IllegalStateException("Unknown discriminator value " + row[1] + " in "
+                            + persister.getTableName() + " for id " + row[0]);
+                }
+                idsBySubtype.computeIfAbsent(subtype, s -> new ArrayList<>()).add(row[0]);
+            }
+        }
+
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>();
+        String idAttribute = persister.getIdentifierPropertyName();
+        for (Map.Entry<String, List<Object>> entry : idsBySubtype.entrySet()) {
+            String jpql = entry.getKey().equals(persister.getEntityName())
+                    ? "SELECT e FROM " + entry.getKey() + " e WHERE TYPE(e) = " + entry.getKey() + " AND e." + idAttribute + " IN :ids"
+                    : "SELECT e FROM " + entry.getKey() + " e WHERE e." + idAttribute + " IN :ids";
+            for (List<Object> batch : batches(toIdType(entry.getValue(), persister), batchSize)) {
+                for (T entity : em.createQuery(jpql, root).setParameter("ids", batch).getResultList()) {
+                    byId.put(util.getIdentifier(entity), entity);
+                }
+            }
+        }
+
+        List<T> result = new ArrayList<>(byId.size());
+        for (Object id : toIdType(idList, persister)) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private static AbstractEntityPersister joinedPersister(EntityManager em, Class<?> root) {
+        EntityPersister persister = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(root);
+        if (!(persister instanceof JoinedSubclassEntityPersister) || !persister.getEntityName().equals(persister.getRootEntityName())) {
+            throw new IllegalArgumentException(root.getName() + " is not the root of a JOINED hierarchy");
+        }
+        AbstractEntityPersister joined = (AbstractEntityPersister) persister;
+        if (joined.getDiscriminatorColumnName() == null || joined.getDiscriminatorColumnName().equals("clazz_")) {
+            throw new IllegalArgumentException(root.getName() + " needs an explicit @DiscriminatorColumn");
+        }
+        return joined;
+    }
+
+    /* native queries return the JDBC type of the column (Integer, BigInteger, Long...), the entities the id type */
+    private static List<Object> toIdType(List<Object> ids, AbstractEntityPersister persister) {
+        Class<?> idType = persister.getIdentifierType().getReturnedClass();
+        List<Object> converted = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            if (id instanceof Number && !idType.isInstance(id)) {
+                Number number = (Number) id;
+                if (idType == Long.class) {
+                    id = number.longValue();
+                } else if (idType == Integer.class) {
+                    id = number.intValue();
+                } else if (idType == Short.class) {
+                    id = number.shortValue();
+                }
+            }
+            converted.add(id);
+        }
+        return converted;
+    }
+
+    private static List<List<Object>> batches(List<Object> ids, int batchSize) {
+        List<List<Object>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            batches.add(ids.subList(from, Math.min(ids.size(), from + batchSize)));
+        }
+        return batches;
+    }
+}
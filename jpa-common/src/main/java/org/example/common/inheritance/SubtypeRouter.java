@@ -0,0 +1,101 @@
+package org.example.common.inheritance;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.persister.entity.UnionSubclassEntityPersister;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+find() by id on a TABLE_PER_CLASS hierarchy without the UNION ALL of all the tables.
+
+em.find(Employee.class, id) reads from ( select ... from Employee union all select ... from Manager ), one more
+table for each subtype. When the ids come from SubtypeIdGenerator the last two digits are the @SubtypeCode of
+the class (id 4201 is sequence 42 of code 01), so the table is known before the query:
+
+    Employee employee = SubtypeRouter.find(em, Employee.class, 4201);   // select ... from Manager where id=?
+
+A class without subclasses is read with em.find on its own class, a class with subclasses (the root) with a
+native query on its own table, the clazz_ column tells Hibernate the row is of that class. The lookup is an
+array index, it doesn't depend on the number of subtypes.
+ */
+public final class SubtypeRouter {
+    public static final int SLOTS = 100;
+
+    private static final Map<Class<?>, Integer> CODES = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Class<?>[]> SUBTYPES = new ConcurrentHashMap<>();
+
+    private SubtypeRouter() {
+    }
+
+    public static long id(long sequence, int code) {
+        if (code < 0 || code >= SLOTS) {
+            throw new IllegalArgumentException("Subtype code " + code + " is not between 0 and " + (SLOTS - 1));
+        }
+        return sequence * SLOTS + code;
+    }
+
+    /* the @SubtypeCode of the class or of its closest annotated superclass, null if there is none */
+    public static Integer code(Class<?> type) {
+        return CODES.computeIfAbsent(type, t -> {
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                SubtypeCode code = c.getAnnotation(SubtypeCode.class);
+                if (code != null) {
+                    return code.value();
+                }
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Class<? extends T> subtype(EntityManager em, Class<T> root, long id) {
+        Class<?>[] subtypes = SUBTYPES.computeIfAbsent(root, r -> subtypes(em, r));
+        return (Class<? extends T>) subtypes[(int) Math.floorMod(id, (long) SLOTS)];
+    }
+
+    public static <T> T find(EntityManager em, Class<T> root, long id) {
+        Class<? extends T> subtype = subtype(em, root, id);
+        if (subtype == null) {
+            return null;
+        }
+        EntityPersister persister = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(subtype);
+        if (!(persister instanceof UnionSubclassEntityPersister) || !persister.getEntityMetamodel().hasSubclasses()) {
+            return em.find(subtype, id);
+        }
+        AbstractEntityPersister union = (AbstractEntityPersister) persister;
+        String sql = "SELECT t.*, " + union.getDiscriminatorSQLValue() + " AS " + union.getDiscriminatorColumnName()
+                + " FROM " + union.getConstraintOrderedTableNameClosure()[0] + " t"
+                + " WHERE t." + union.getIdentifierColumnNames()[0] + " = :id";
+        @SuppressWarnings("unchecked")
+        List<T> found = em.createNativeQuery(sql, subtype).setParameter("id", id).getResultList();
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static Class<?>[] subtypes(EntityManager em, Class<?> root) {
+        Class<?>[] subtypes = new Class<?>[SLOTS];
+        for (EntityType<?> entity : em.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            SubtypeCode code = type.getAnnotation(SubtypeCode.class);
+            if (code == null || !root.isAssignableFrom(type)) {
+                continue;
+            }
+            if (code.value() < 0 || code.value() >= SLOTS) {
+                throw new IllegalStateException(type.getName() + " has the subtype code " + code.value()
+                        + ", it must be between 0 and " + (SLOTS - 1));
+            }
+            if (subtypes[code.value()] != null) {
+                throw new IllegalStateException(type.getName() + " and " + subtypes[code.value()].getName()
+                        + " have the same subtype code " + code.value());
+            }
+            subtypes[code.value()] = type;
+        }
+        return subtypes;
+    }
+}
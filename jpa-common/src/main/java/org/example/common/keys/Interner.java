@@ -0,0 +1,38 @@
+package org.example.common.keys;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+One shared instance per distinct value, for the parts of composite keys that repeat a lot (a building code is in
+thousands of keys): less memory, and equals() on interned values is usually settled by ==.
+
+Unlike String.intern() the table is ours and bounded: once it holds maxSize values new ones are returned as they
+are, which is still correct, just not shared.
+ */
+public final class Interner<T> {
+    private final ConcurrentHashMap<T, T> values = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public Interner(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        T interned = values.get(value);
+        if (interned != null) {
+            return interned;
+        }
+        if (values.size() >= maxSize) {
+            return value;
+        }
+        interned = values.putIfAbsent(value, value);
+        return interned != null ? interned : value;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
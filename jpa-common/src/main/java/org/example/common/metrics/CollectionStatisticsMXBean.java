@@ -0,0 +1,25 @@
+package org.example.common.metrics;
+
+/*
+The counters of one collection, under org.example.common.metrics:type=CollectionStatistics,unit=<unit name>,name=<role>
+ */
+public interface CollectionStatisticsMXBean {
+
+    String getRole();
+
+    long getLoads();
+
+    long getFetches();
+
+    long getRecreates();
+
+    long getUpdates();
+
+    long getRemoves();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getCachePuts();
+}
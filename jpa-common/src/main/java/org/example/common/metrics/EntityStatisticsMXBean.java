@@ -0,0 +1,27 @@
+package org.example.common.metrics;
+
+/*
+The counters of one entity, under org.example.common.metrics:type=EntityStatistics,unit=<unit name>,name=<entity>
+ */
+public interface EntityStatisticsMXBean {
+
+    String getEntityName();
+
+    long getLoads();
+
+    long getFetches();
+
+    long getInserts();
+
+    long getUpdates();
+
+    long getDeletes();
+
+    long getOptimisticFailures();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getCachePuts();
+}
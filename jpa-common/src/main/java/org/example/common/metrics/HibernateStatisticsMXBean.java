@@ -0,0 +1,58 @@
+package org.example.common.metrics;
+
+/*
+What StatisticsExporter exports through JMX for every persistence unit,
+under org.example.common.metrics:type=HibernateStatistics,unit=<unit name>
+ */
+public interface HibernateStatisticsMXBean {
+
+    String getUnitName();
+
+    boolean isStatisticsEnabled();
+
+    void setStatisticsEnabled(boolean enabled);
+
+    long getSessionsOpened();
+
+    long getSessionsClosed();
+
+    long getFlushes();
+
+    long getConnectionsObtained();
+
+    long getStatementsPrepared();
+
+    long getTransactions();
+
+    long getSuccessfulTransactions();
+
+    double getTransactionP50Millis();
+
+    double getTransactionP99Millis();
+
+    double getTransactionMaxMillis();
+
+    long getOptimisticFailures();
+
+    long getSecondLevelCacheHits();
+
+    long getSecondLevelCacheMisses();
+
+    long getSecondLevelCachePuts();
+
+    double getSecondLevelCacheHitRatio();
+
+    long getQueryExecutions();
+
+    long getQueryExecutionMaxTimeMillis();
+
+    long getQueryCacheHits();
+
+    long getQueryCacheMisses();
+
+    long getQueryCachePuts();
+
+    double getQueryCacheHitRatio();
+
+    void clear();
+}
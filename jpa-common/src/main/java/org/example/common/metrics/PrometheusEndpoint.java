@@ -0,0 +1,82 @@
+package org.example.common.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+GET /metrics with StatisticsExporter.scrape(), on the JDK's HttpServer. One daemon thread answers the scrapes,
+the server doesn't keep the JVM alive. When the port is taken a warning is logged and there's no endpoint.
+ */
+final class PrometheusEndpoint {
+    private static final Logger LOG = Logger.getLogger(PrometheusEndpoint.class.getName());
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private PrometheusEndpoint() {
+    }
+
+    static synchronized void start(int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            // the statistics are still in JMX, a busy port must not stop the application
+            LOG.log(Level.WARNING, "Could not listen on port " + port + " for the metrics, no /metrics endpoint", e);
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", PrometheusEndpoint::scrape);
+        // the dispatcher thread of the server is a daemon when the thread starting the server is one
+        Thread starter = new Thread(server::start, "metrics-http-start");
+        starter.setDaemon(true);
+        starter.start();
+        try {
+            starter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private static void scrape(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = StatisticsExporter.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusWriter.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.common.metrics;
+
+import org.example.common.sql.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+The Prometheus text format (version 0.0.4): the samples of a metric together, after its # HELP and # TYPE lines,
+whatever the order they are added in.
+
+    # HELP hibernate_entity_loads_total Entities loaded
+    # TYPE hibernate_entity_loads_total counter
+    hibernate_entity_loads_total{unit="my-persistence-unit",entity="org.example.entities.Product"} 12
+ */
+final class PrometheusWriter {
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /* labels are name, value, name, value... */
+    void counter(String name, String help, double value, String... labels) {
+        family(name, "counter", help).samples.add(sample(name, labels, null, value));
+    }
+
+    void gauge(String name, String help, double value, String... labels) {
+        family(name, "gauge", help).samples.add(sample(name, labels, null, value));
+    }
+
+    /* a histogram in microseconds as a summary in seconds: p50, p99, max, sum and count */
+    void summary(String name, String help, LatencyHistogram histogram, String... labels) {
+        Family family = family(name, "summary", help);
+        family.samples.add(sample(name, labels, "quantile=\"0.5\"", histogram.percentile(0.5) / 1e6));
+        family.samples.add(sample(name, labels, "quantile=\"0.99\"", histogram.percentile(0.99) / 1e6));
+        family.samples.add(sample(name, labels, "quantile=\"1\"", histogram.getMaxMicros() / 1e6));
+        family.samples.add(sample(name + "_sum", labels, null, histogram.getTotalMicros() / 1e6));
+        family.samples.add(sample(name + "_count", labels, null, histogram.getCount()));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(families.size() * 256);
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            Family family = entry.getValue();
+            text.append("# HELP ").append(entry.getKey()).append(' ').append(family.help).append('\n');
+            text.append("# TYPE ").append(entry.getKey()).append(' ').append(family.type).append('\n');
+            family.samples.forEach(sample -> text.append(sample).append('\n'));
+        }
+        return text.toString();
+    }
+
+    private Family family(String name, String type, String help) {
+        return families.computeIfAbsent(name, n -> new Family(type, help));
+    }
+
+    private static String sample(String name, String[] labels, String extraLabel, double value) {
+        StringBuilder sample = new StringBuilder(name);
+        if (labels.length > 0 || extraLabel != null) {
+            sample.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    sample.append(',');
+                }
+                sample.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            if (extraLabel != null) {
+                sample.append(labels.length > 0 ? "," : "").append(extraLabel);
+            }
+            sample.append('}');
+        }
+        sample.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            sample.append((long) value);
+        } else {
+            sample.append(value);
+        }
+        return sample.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        private final String type;
+        private final String help;
+        private final List<String> samples = new ArrayList<>();
+
+        private Family(String type, String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.common.metrics;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Publishes the Hibernate statistics of every persistence unit that has it as its session factory observer:
+as MXBeans (org.example.common.metrics, one for the unit, one per entity and per collection) and, when a port
+is set, as Prometheus text on http://<host>:<port>/metrics. In persistence.xml:
+
+    <property name="hibernate.generate_statistics" value="true" />
+    <property name="hibernate.session.events.log" value="false" />
+    <property name="hibernate.stats.factory" value="org.example.common.metrics.TimedStatisticsFactory" />
+    <property name="hibernate.ejb.session_factory_observer" value="org.example.common.metrics.StatisticsExporter" />
+    <property name="example.metrics.http_port" value="9404" />
+
+-Dexample.metrics.http_port=9404 works too, one endpoint serves all the units of the JVM. The statistics can be
+switched off and on at runtime, per unit, with the StatisticsEnabled attribute of the unit's MXBean.
+ */
+public class StatisticsExporter implements SessionFactoryObserver {
+    public static final String HTTP_PORT = "example.metrics.http_port";
+
+    private static final Map<SessionFactory, UnitMetrics> UNITS = new ConcurrentHashMap<>();
+
+    @Override
+    public void sessionFactoryCreated(SessionFactory sessionFactory) {
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) sessionFactory;
+        Map<String, Object> settings = factory.getProperties();
+        String unitName = ConfigurationHelper.getString("hibernate.ejb.persistenceUnitName", settings,
+                factory.getName() != null ? factory.getName() : "default");
+        UnitMetrics unit = new UnitMetrics(uniqueName(unitName), factory);
+        unit.register();
+        UNITS.put(sessionFactory, unit);
+
+        int port = Integer.getInteger(HTTP_PORT, ConfigurationHelper.getInt(HTTP_PORT, settings, 0));
+        if (port > 0) {
+            PrometheusEndpoint.start(port);
+        }
+    }
+
+    @Override
+    public void sessionFactoryClosed(SessionFactory sessionFactory) {
+        UnitMetrics unit = UNITS.remove(sessionFactory);
+        if (unit != null) {
+            unit.unregister();
+        }
+        if (UNITS.isEmpty()) {
+            PrometheusEndpoint.stop();
+        }
+    }
+
+    /* the same unit can be bootstrapped more than once (e.g. with different overrides): my-persistence-unit#2 */
+    private static synchronized String uniqueName(String unitName) {
+        String name = unitName;
+        for (int i = 2; isUsed(name); i++) {
+            name = unitName + "#" + i;
+        }
+        return name;
+    }
+
+    private static boolean isUsed(String name) {
+        return UNITS.values().stream().anyMatch(unit -> unit.getUnitName().equals(name));
+    }
+
+    /* what the endpoint serves, in the Prometheus text format */
+    public static String scrape() {
+        PrometheusWriter out = new PrometheusWriter();
+        for (UnitMetrics unit : UNITS.values()) {
+            unit.write(out);
+        }
+        return out.toString();
+    }
+}
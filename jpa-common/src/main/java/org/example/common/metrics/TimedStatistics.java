@@ -0,0 +1,53 @@
+package org.example.common.metrics;
+
+import org.example.common.sql.LatencyHistogram;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/*
+Hibernate's statistics, plus the time of every transaction: from the connection the transaction gets (a
+resource-local transaction takes its connection when it begins) to its commit or rollback, on the same thread.
+A transaction running on a connection taken before it began, by a read outside of any transaction in the same
+session, isn't timed.
+ */
+public class TimedStatistics extends StatisticsImpl {
+    private final ThreadLocal<long[]> connected = ThreadLocal.withInitial(() -> new long[1]);
+    private volatile LatencyHistogram transactionTimes = new LatencyHistogram();
+
+    public TimedStatistics(SessionFactoryImplementor factory) {
+        super(factory);
+    }
+
+    /* in microseconds */
+    public LatencyHistogram getTransactionTimes() {
+        return transactionTimes;
+    }
+
+    @Override
+    public void connect() {
+        super.connect();
+        connected.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void endTransaction(boolean success) {
+        super.endTransaction(success);
+        long[] start = connected.get();
+        if (start[0] != 0) {
+            transactionTimes.record((System.nanoTime() - start[0]) / 1000);
+            start[0] = 0;
+        }
+    }
+
+    @Override
+    public void closeSession() {
+        super.closeSession();
+        connected.get()[0] = 0;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        transactionTimes = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.common.metrics;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/*
+In persistence.xml, for the transaction times of StatisticsExporter:
+
+    <property name="hibernate.stats.factory" value="org.example.common.metrics.TimedStatisticsFactory" />
+ */
+public class TimedStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor factory) {
+        return new TimedStatistics(factory);
+    }
+}
@@ -0,0 +1,420 @@
+package org.example.common.metrics;
+
+import org.example.common.sql.LatencyHistogram;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+The statistics of one persistence unit: its MXBeans (one for the unit, one per entity and per collection) and its
+samples in the Prometheus text. Everything is read from Statistics when asked for, nothing is copied or
+counted here; the transaction times need TimedStatistics (see TimedStatisticsFactory).
+ */
+final class UnitMetrics implements HibernateStatisticsMXBean {
+    private static final Logger LOG = Logger.getLogger(UnitMetrics.class.getName());
+    private static final String DOMAIN = "org.example.common.metrics";
+
+    private final String unitName;
+    private final Statistics statistics;
+    private final List<ObjectName> objectNames = new ArrayList<>();
+
+    UnitMetrics(String unitName, SessionFactoryImplementor factory) {
+        this.unitName = unitName;
+        this.statistics = factory.getStatistics();
+    }
+
+    void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String unit = "unit=" + ObjectName.quote(unitName);
+            register(server, this, DOMAIN + ":type=HibernateStatistics," + unit);
+            for (String entity : statistics.getEntityNames()) {
+                register(server, new Entity(entity), DOMAIN + ":type=EntityStatistics," + unit
+                        + ",name=" + ObjectName.quote(entity));
+            }
+            for (String role : statistics.getCollectionRoleNames()) {
+                register(server, new Collection(role), DOMAIN + ":type=CollectionStatistics," + unit
+                        + ",name=" + ObjectName.quote(role));
+            }
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Could not register the statistics of " + unitName + " in JMX", e);
+        }
+    }
+
+    void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : objectNames) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.log(Level.FINE, "Could not unregister " + objectName, e);
+            }
+        }
+        objectNames.clear();
+    }
+
+    void write(PrometheusWriter out) {
+        if (!statistics.isStatisticsEnabled()) {
+            out.gauge("hibernate_statistics_enabled", "1 when the unit collects statistics", 0, "unit", unitName);
+            return;
+        }
+        out.gauge("hibernate_statistics_enabled", "1 when the unit collects statistics", 1, "unit", unitName);
+        out.counter("hibernate_sessions_opened_total", "Sessions opened", getSessionsOpened(), "unit", unitName);
+        out.counter("hibernate_sessions_closed_total", "Sessions closed", getSessionsClosed(), "unit", unitName);
+        out.counter("hibernate_flushes_total", "Flushes", getFlushes(), "unit", unitName);
+        out.counter("hibernate_connections_obtained_total", "JDBC connections obtained", getConnectionsObtained(),
+                "unit", unitName);
+        out.counter("hibernate_statements_prepared_total", "JDBC statements prepared", getStatementsPrepared(),
+                "unit", unitName);
+        out.counter("hibernate_transactions_total", "Transactions completed", getTransactions(), "unit", unitName);
+        out.counter("hibernate_transactions_successful_total", "Transactions committed",
+                getSuccessfulTransactions(), "unit", unitName);
+        LatencyHistogram transactionTimes = transactionTimes();
+        if (transactionTimes != null) {
+            out.summary("hibernate_transaction_seconds", "Time from the connection to the commit or rollback",
+                    transactionTimes, "unit", unitName);
+        }
+        out.counter("hibernate_optimistic_failures_total", "Optimistic lock failures", getOptimisticFailures(),
+                "unit", unitName);
+        out.counter("hibernate_second_level_cache_hits_total", "Second level cache hits", getSecondLevelCacheHits(),
+                "unit", unitName);
+        out.counter("hibernate_second_level_cache_misses_total", "Second level cache misses",
+                getSecondLevelCacheMisses(), "unit", unitName);
+        out.counter("hibernate_second_level_cache_puts_total", "Second level cache puts", getSecondLevelCachePuts(),
+                "unit", unitName);
+        out.gauge("hibernate_second_level_cache_hit_ratio", "Second level cache hits / lookups",
+                getSecondLevelCacheHitRatio(), "unit", unitName);
+        out.counter("hibernate_query_executions_total", "Queries run on the database", getQueryExecutions(),
+                "unit", unitName);
+        out.gauge("hibernate_query_execution_max_seconds", "Slowest query",
+                getQueryExecutionMaxTimeMillis() / 1000.0, "unit", unitName);
+        out.counter("hibernate_query_cache_hits_total", "Query cache hits", getQueryCacheHits(), "unit", unitName);
+        out.counter("hibernate_query_cache_misses_total", "Query cache misses", getQueryCacheMisses(),
+                "unit", unitName);
+        out.counter("hibernate_query_cache_puts_total", "Query cache puts", getQueryCachePuts(), "unit", unitName);
+        out.gauge("hibernate_query_cache_hit_ratio", "Query cache hits / lookups", getQueryCacheHitRatio(),
+                "unit", unitName);
+
+        for (String name : statistics.getEntityNames()) {
+            Entity entity = new Entity(name);
+            out.counter("hibernate_entity_loads_total", "Entities loaded", entity.getLoads(),
+                    "unit", unitName, "entity", name);
+            out.counter("hibernate_entity_fetches_total", "Entities fetched with their own SELECT",
+                    entity.getFetches(), "unit", unitName, "entity", name);
+            out.counter("hibernate_entity_inserts_total", "Entities inserted", entity.getInserts(),
+                    "unit", unitName, "entity", name);
+            out.counter("hibernate_entity_updates_total", "Entities updated", entity.getUpdates(),
+                    "unit", unitName, "entity", name);
+            out.counter("hibernate_entity_deletes_total", "Entities deleted", entity.getDeletes(),
+                    "unit", unitName, "entity", name);
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            Collection collection = new Collection(role);
+            out.counter("hibernate_collection_loads_total", "Collections loaded", collection.getLoads(),
+                    "unit", unitName, "collection", role);
+            out.counter("hibernate_collection_fetches_total", "Collections fetched with their own SELECT",
+                    collection.getFetches(), "unit", unitName, "collection", role);
+            out.counter("hibernate_collection_recreates_total", "Collections recreated", collection.getRecreates(),
+                    "unit", unitName, "collection", role);
+            out.counter("hibernate_collection_updates_total", "Collections updated", collection.getUpdates(),
+                    "unit", unitName, "collection", role);
+            out.counter("hibernate_collection_removes_total", "Collections removed", collection.getRemoves(),
+                    "unit", unitName, "collection", role);
+        }
+    }
+
+    @Override
+    public String getUnitName() {
+        return unitName;
+    }
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return statistics.isStatisticsEnabled();
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean enabled) {
+        statistics.setStatisticsEnabled(enabled);
+    }
+
+    @Override
+    public long getSessionsOpened() {
+        return statistics.getSessionOpenCount();
+    }
+
+    @Override
+    public long getSessionsClosed() {
+        return statistics.getSessionCloseCount();
+    }
+
+    @Override
+    public long getFlushes() {
+        return statistics.getFlushCount();
+    }
+
+    @Override
+    public long getConnectionsObtained() {
+        return statistics.getConnectCount();
+    }
+
+    @Override
+    public long getStatementsPrepared() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Override
+    public long getTransactions() {
+        return statistics.getTransactionCount();
+    }
+
+    @Override
+    public long getSuccessfulTransactions() {
+        return statistics.getSuccessfulTransactionCount();
+    }
+
+    @Override
+    public double getTransactionP50Millis() {
+        LatencyHistogram times = transactionTimes();
+        return times == null ? 0 : times.percentile(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getTransactionP99Millis() {
+        LatencyHistogram times = transactionTimes();
+        return times == null ? 0 : times.percentile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getTransactionMaxMillis() {
+        LatencyHistogram times = transactionTimes();
+        return times == null ? 0 : times.getMaxMicros() / 1000.0;
+    }
+
+    @Override
+    public long getOptimisticFailures() {
+        return statistics.getOptimisticFailureCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheHits() {
+        return statistics.getSecondLevelCacheHitCount();
+    }
+
+    @Override
+    public long getSecondLevelCacheMisses() {
+        return statistics.getSecondLevelCacheMissCount();
+    }
+
+    @Override
+    public long getSecondLevelCachePuts() {
+        return statistics.getSecondLevelCachePutCount();
+    }
+
+    @Override
+    public double getSecondLevelCacheHitRatio() {
+        return ratio(getSecondLevelCacheHits(), getSecondLevelCacheMisses());
+    }
+
+    @Override
+    public long getQueryExecutions() {
+        return statistics.getQueryExecutionCount();
+    }
+
+    @Override
+    public long getQueryExecutionMaxTimeMillis() {
+        return statistics.getQueryExecutionMaxTime();
+    }
+
+    @Override
+    public long getQueryCacheHits() {
+        return statistics.getQueryCacheHitCount();
+    }
+
+    @Override
+    public long getQueryCacheMisses() {
+        return statistics.getQueryCacheMissCount();
+    }
+
+    @Override
+    public long getQueryCachePuts() {
+        return statistics.getQueryCachePutCount();
+    }
+
+    @Override
+    public double getQueryCacheHitRatio() {
+        return ratio(getQueryCacheHits(), getQueryCacheMisses());
+    }
+
+    @Override
+    public void clear() {
+        statistics.clear();
+    }
+
+    private LatencyHistogram transactionTimes() {
+        return statistics instanceof TimedStatistics ? ((TimedStatistics) statistics).getTransactionTimes() : null;
+    }
+
+    private void register(MBeanServer server, Object mbean, String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        // the same unit can be bootstrapped more than once (e.g. with different overrides)
+        for (int i = 2; server.isRegistered(objectName); i++) {
+            objectName = new ObjectName(name + ",instance=" + i);
+        }
+        server.registerMBean(mbean, objectName);
+        objectNames.add(objectName);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private final class Entity implements EntityStatisticsMXBean {
+        private final String name;
+
+        private Entity(String name) {
+            this.name = name;
+        }
+
+        // null while the statistics are off
+        private EntityStatistics statistics() {
+            return statistics.getEntityStatistics(name);
+        }
+
+        @Override
+        public String getEntityName() {
+            return name;
+        }
+
+        @Override
+        public long getLoads() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getLoadCount();
+        }
+
+        @Override
+        public long getFetches() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getFetchCount();
+        }
+
+        @Override
+        public long getInserts() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getInsertCount();
+        }
+
+        @Override
+        public long getUpdates() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getUpdateCount();
+        }
+
+        @Override
+        public long getDeletes() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getDeleteCount();
+        }
+
+        @Override
+        public long getOptimisticFailures() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getOptimisticFailureCount();
+        }
+
+        @Override
+        public long getCacheHits() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getCacheHitCount();
+        }
+
+        @Override
+        public long getCacheMisses() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getCacheMissCount();
+        }
+
+        @Override
+        public long getCachePuts() {
+            EntityStatistics entity = statistics();
+            return entity == null ? 0 : entity.getCachePutCount();
+        }
+    }
+
+    private final class Collection implements CollectionStatisticsMXBean {
+        private final String role;
+
+        private Collection(String role) {
+            this.role = role;
+        }
+
+        // null while the statistics are off
+        private CollectionStatistics statistics() {
+            return statistics.getCollectionStatistics(role);
+        }
+
+        @Override
+        public String getRole() {
+            return role;
+        }
+
+        @Override
+        public long getLoads() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getLoadCount();
+        }
+
+        @Override
+        public long getFetches() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getFetchCount();
+        }
+
+        @Override
+        public long getRecreates() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getRecreateCount();
+        }
+
+        @Override
+        public long getUpdates() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getUpdateCount();
+        }
+
+        @Override
+        public long getRemoves() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getRemoveCount();
+        }
+
+        @Override
+        public long getCacheHits() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getCacheHitCount();
+        }
+
+        @Override
+        public long getCacheMisses() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getCacheMissCount();
+        }
+
+        @Override
+        public long getCachePuts() {
+            CollectionStatistics collection = statistics();
+            return collection == null ? 0 : collection.getCachePutCount();
+        }
+    }
+}
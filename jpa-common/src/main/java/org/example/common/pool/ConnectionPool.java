@@ -0,0 +1,356 @@
+package org.example.common.pool;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+A small JDBC connection pool:
+- at most max_size connections are handed out, the others wait up to connection_timeout_ms
+- min_size connections are opened up front and kept open
+- a connection idle for more than validate_after_idle_ms is checked with isValid() before it's handed out
+- a connection given back is rolled back if a transaction is open and its autocommit, read-only flag, isolation
+  and catalog are put back as they were when it was opened
+- connections idle for more than idle_timeout_ms are closed (never going below min_size)
+- a connection held longer than leak_detection_threshold_ms is logged with the stack trace of whoever took it
+The last used connection is handed out first, so a few connections stay warm and the others time out.
+ */
+public class ConnectionPool implements ConnectionPoolMXBean, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+    private static final long HOUSEKEEPING_PERIOD_MS = 1000;
+
+    private final PoolConfig config;
+    private final Properties connectionProperties = new Properties();
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, PooledConnection> active = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(PoolConfig config) {
+        this.config = config;
+        if (config.getUser() != null) {
+            connectionProperties.setProperty("user", config.getUser());
+        }
+        if (config.getPassword() != null) {
+            connectionProperties.setProperty("password", config.getPassword());
+        }
+        if (config.getDriver() != null) {
+            try {
+                Class.forName(config.getDriver());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("JDBC driver " + config.getDriver() + " is not on the classpath", e);
+            }
+        }
+        this.permits = new Semaphore(config.getMaxSize(), true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-" + config.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinimum();
+        housekeeper.scheduleWithFixedDelay(this::houseKeeping, HOUSEKEEPING_PERIOD_MS, HOUSEKEEPING_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public String getName() {
+        return config.getName();
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool " + getName() + " is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection from pool " + getName(), e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("Connection pool " + getName() + " timed out after "
+                    + config.getConnectionTimeoutMs() + " ms (active=" + active.size() + ", idle=" + idle.size() + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.leasedAt = System.nanoTime();
+            pooled.leakReported = false;
+            // capturing the stack trace costs, so it's only done when someone will look at it
+            pooled.leasedBy = config.getLeakDetectionThresholdMs() > 0 ? new Exception("Connection taken here") : null;
+            active.put(pooled.connection, pooled);
+            borrowed.increment();
+            return pooled.connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(Connection connection) throws SQLException {
+        PooledConnection pooled = active.remove(connection);
+        if (pooled == null) {
+            connection.close();
+            return;
+        }
+        try {
+            if (closed || connection.isClosed()) {
+                destroy(pooled);
+            } else {
+                pooled.reset();
+                pooled.lastUsed = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "Could not reset a connection of pool " + getName() + ", closing it", e);
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            invalidated.increment();
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.nanoTime() - pooled.lastUsed < TimeUnit.MILLISECONDS.toNanos(config.getValidateAfterIdleMs())) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(config.getValidationTimeoutS());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection connection = DriverManager.getConnection(config.getUrl(), connectionProperties);
+        PooledConnection pooled;
+        try {
+            pooled = new PooledConnection(connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        total.incrementAndGet();
+        created.increment();
+        return pooled;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "Could not close connection of pool " + getName(), e);
+        }
+    }
+
+    private void houseKeeping() {
+        try {
+            detectLeaks();
+            evictIdle();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "Housekeeping of connection pool " + getName() + " failed", e);
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = TimeUnit.MILLISECONDS.toNanos(config.getLeakDetectionThresholdMs());
+        if (threshold == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledConnection pooled : active.values()) {
+            long held = now - pooled.leasedAt;
+            if (!pooled.leakReported && held > threshold) {
+                pooled.leakReported = true;
+                leaks.increment();
+                LOG.log(Level.WARNING, "Possible connection leak in pool " + getName() + ", connection held for "
+                        + TimeUnit.NANOSECONDS.toMillis(held) + " ms", pooled.leasedBy);
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long timeout = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMs());
+        // the least recently used connections are at the end of the deque
+        while (total.get() > config.getMinSize()) {
+            PooledConnection oldest = idle.pollLast();
+            if (oldest == null) {
+                return;
+            }
+            if (System.nanoTime() - oldest.lastUsed < timeout) {
+                idle.offerLast(oldest);
+                return;
+            }
+            destroy(oldest);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total.get() < config.getMinSize()) {
+            try {
+                idle.offerLast(create());
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Could not open a connection for pool " + getName() + ", will retry", e);
+                return;
+            }
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waitNanos.add(nanos);
+        long max;
+        while (nanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, nanos)) {
+            // retry until the max is ours or someone waited longer
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        // connections still in use are closed when they come back
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return active.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return total.get();
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public long getConnectionsBorrowed() {
+        return borrowed.sum();
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return created.sum();
+    }
+
+    @Override
+    public long getConnectionsInvalidated() {
+        return invalidated.sum();
+    }
+
+    @Override
+    public long getLeaksDetected() {
+        return leaks.sum();
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        long count = borrowed.sum() + timeouts.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    private static final class PooledConnection {
+        private final Connection connection;
+        private volatile long lastUsed = System.nanoTime();
+        private volatile long leasedAt;
+        private volatile boolean leakReported;
+        private volatile Exception leasedBy;
+
+        // the state of the connection as it was opened, given back to whoever takes it next
+        private final boolean autoCommit;
+        private final boolean readOnly;
+        private final int transactionIsolation;
+        private final String catalog;
+
+        private PooledConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.autoCommit = connection.getAutoCommit();
+            this.readOnly = connection.isReadOnly();
+            this.transactionIsolation = connection.getTransactionIsolation();
+            this.catalog = connection.getCatalog();
+        }
+
+        /* rolls back what the last user left open and undoes its settings, an exception means the connection is lost */
+        private void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (connection.isReadOnly() != readOnly) {
+                connection.setReadOnly(readOnly);
+            }
+            if (connection.getTransactionIsolation() != transactionIsolation) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            if (catalog != null && !catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+            connection.clearWarnings();
+        }
+    }
+}
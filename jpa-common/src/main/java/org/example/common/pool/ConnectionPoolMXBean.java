@@ -0,0 +1,29 @@
+package org.example.common.pool;
+
+/*
+What the pool exports through JMX, under org.example.common.pool:type=ConnectionPool,name=<pool name>
+ */
+public interface ConnectionPoolMXBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getThreadsAwaitingConnection();
+
+    long getConnectionsBorrowed();
+
+    long getConnectionTimeouts();
+
+    long getConnectionsCreated();
+
+    long getConnectionsInvalidated();
+
+    long getLeaksDetected();
+
+    double getAverageWaitMillis();
+
+    double getMaxWaitMillis();
+}
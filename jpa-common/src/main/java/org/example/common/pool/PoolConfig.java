@@ -0,0 +1,114 @@
+package org.example.common.pool;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.util.Map;
+
+/*
+The example.pool.* settings of persistence.xml, the connection itself is taken from the usual
+javax.persistence.jdbc.* (or hibernate.connection.*) properties.
+ */
+public class PoolConfig {
+    public static final String PREFIX = "example.pool.";
+    public static final String NAME = PREFIX + "name";
+    public static final String MIN_SIZE = PREFIX + "min_size";
+    public static final String MAX_SIZE = PREFIX + "max_size";
+    public static final String CONNECTION_TIMEOUT_MS = PREFIX + "connection_timeout_ms";
+    public static final String VALIDATION_TIMEOUT_S = PREFIX + "validation_timeout_s";
+    public static final String VALIDATE_AFTER_IDLE_MS = PREFIX + "validate_after_idle_ms";
+    public static final String IDLE_TIMEOUT_MS = PREFIX + "idle_timeout_ms";
+    public static final String LEAK_DETECTION_THRESHOLD_MS = PREFIX + "leak_detection_threshold_ms";
+
+    private final String name;
+    private final String driver;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long connectionTimeoutMs;
+    private final int validationTimeoutS;
+    private final long validateAfterIdleMs;
+    private final long idleTimeoutMs;
+    private final long leakDetectionThresholdMs;
+
+    public PoolConfig(Map settings) {
+        this.name = ConfigurationHelper.getString(NAME, settings,
+                ConfigurationHelper.getString("hibernate.ejb.persistenceUnitName", settings, "default"));
+        this.driver = firstOf(settings, AvailableSettings.JPA_JDBC_DRIVER, AvailableSettings.DRIVER);
+        this.url = firstOf(settings, AvailableSettings.JPA_JDBC_URL, AvailableSettings.URL);
+        this.user = firstOf(settings, AvailableSettings.JPA_JDBC_USER, AvailableSettings.USER);
+        this.password = firstOf(settings, AvailableSettings.JPA_JDBC_PASSWORD, AvailableSettings.PASS);
+        this.minSize = ConfigurationHelper.getInt(MIN_SIZE, settings, 2);
+        this.maxSize = ConfigurationHelper.getInt(MAX_SIZE, settings, 10);
+        this.connectionTimeoutMs = ConfigurationHelper.getLong(CONNECTION_TIMEOUT_MS, settings, 30_000);
+        this.validationTimeoutS = ConfigurationHelper.getInt(VALIDATION_TIMEOUT_S, settings, 5);
+        this.validateAfterIdleMs = ConfigurationHelper.getLong(VALIDATE_AFTER_IDLE_MS, settings, 500);
+        this.idleTimeoutMs = ConfigurationHelper.getLong(IDLE_TIMEOUT_MS, settings, 600_000);
+        this.leakDetectionThresholdMs = ConfigurationHelper.getLong(LEAK_DETECTION_THRESHOLD_MS, settings, 0);
+
+        if (url == null) {
+            throw new IllegalArgumentException("No JDBC url configured, set " + AvailableSettings.JPA_JDBC_URL);
+        }
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size, min_size=" + minSize + " max_size=" + maxSize);
+        }
+    }
+
+    private static String firstOf(Map settings, String name, String alternative) {
+        String value = ConfigurationHelper.getString(name, settings);
+        return value != null ? value : ConfigurationHelper.getString(alternative, settings);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDriver() {
+        return driver;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getConnectionTimeoutMs() {
+        return connectionTimeoutMs;
+    }
+
+    public int getValidationTimeoutS() {
+        return validationTimeoutS;
+    }
+
+    public long getValidateAfterIdleMs() {
+        return validateAfterIdleMs;
+    }
+
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    /*
+    0 turns leak detection off
+     */
+    public long getLeakDetectionThresholdMs() {
+        return leakDetectionThresholdMs;
+    }
+}
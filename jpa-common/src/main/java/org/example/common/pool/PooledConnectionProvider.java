@@ -0,0 +1,102 @@
+package org.example.common.pool;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Plugs ConnectionPool into Hibernate, in persistence.xml:
+
+    <property name="hibernate.connection.provider_class" value="org.example.common.pool.PooledConnectionProvider" />
+
+Hibernate's own DriverManagerConnectionProviderImpl is only meant for tests and demos.
+The pool statistics are registered in JMX as org.example.common.pool:type=ConnectionPool,name=<pool name>.
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    private static final Logger LOG = Logger.getLogger(PooledConnectionProvider.class.getName());
+
+    private ConnectionPool pool;
+    private ObjectName objectName;
+
+    @Override
+    public void configure(Map settings) {
+        pool = new ConnectionPool(new PoolConfig(settings));
+        objectName = register(pool);
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return pool.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        pool.release(connection);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class unwrapType) {
+        return unwrapType.isInstance(this) || unwrapType.isInstance(pool);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (unwrapType.isInstance(pool)) {
+            return (T) pool;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                LOG.log(Level.FINE, "Could not unregister " + objectName, e);
+            }
+        }
+        pool.close();
+    }
+
+    private static ObjectName register(ConnectionPool pool) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = "org.example.common.pool:type=ConnectionPool,name=" + ObjectName.quote(pool.getName());
+            ObjectName objectName = new ObjectName(name);
+            // the same unit can be bootstrapped more than once (e.g. with different overrides)
+            for (int i = 2; server.isRegistered(objectName); i++) {
+                objectName = new ObjectName(name + ",instance=" + i);
+            }
+            server.registerMBean(pool, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new HibernateException("Could not register the connection pool in JMX", e);
+        }
+    }
+}
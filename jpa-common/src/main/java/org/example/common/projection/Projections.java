@@ -0,0 +1,241 @@
+package org.example.common.projection;
+
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+Maps the rows of a Tuple query (JPQL or native) to DTOs, without creating entities: nothing is added to the
+persistence context and there is no snapshot for dirty checking.
+
+An interface, one getter per column, the column alias is the property name (case-insensitive), default methods
+are called as they are:
+
+    interface ProductView { int getId(); String getName(); default String label() { return getId() + " " + getName(); } }
+    List<ProductView> views = Projections.list(
+            em.createQuery("SELECT p.id AS id, p.name AS name FROM Product p", Tuple.class), ProductView.class);
+
+or a class whose constructor takes the columns in order (for JPQL a constructor expression,
+SELECT new org.example.dto.ProductSummary(p.id, p.name) ..., does the same without Tuple):
+
+    List<ProductSummary> summaries = Projections.list(
+            em.createNativeQuery("SELECT id, name FROM product", Tuple.class), ProductSummary.class);
+
+Numbers are converted to the type the DTO asks for, native queries return BigDecimal / BigInteger / Long
+depending on the driver.
+ */
+public final class Projections {
+
+    private Projections() {
+    }
+
+    public static <D> List<D> list(Query tupleQuery, Class<D> type) {
+        @SuppressWarnings("unchecked")
+        List<Tuple> tuples = tupleQuery.getResultList();
+        List<D> result = new ArrayList<>(tuples.size());
+        if (tuples.isEmpty()) {
+            return result;
+        }
+        RowMapper<D> mapper = type.isInterface()
+                ? new InterfaceMapper<>(type, tuples.get(0))
+                : new ConstructorMapper<>(type, tuples.get(0));
+        for (Tuple tuple : tuples) {
+            result.add(mapper.map(tuple.toArray()));
+        }
+        return result;
+    }
+
+    private interface RowMapper<D> {
+        D map(Object[] row);
+    }
+
+    private static final class InterfaceMapper<D> implements RowMapper<D> {
+        private final Class<D> type;
+        private final Map<Method, Integer> columns = new HashMap<>();
+        private final Map<Method, MethodHandle> defaults = new HashMap<>();
+
+        private InterfaceMapper(Class<D> type, Tuple first) {
+            this.type = type;
+            Map<String, Integer> aliases = new HashMap<>();
+            List<TupleElement<?>> elements = first.getElements();
+            for (int i = 0; i < elements.size(); i++) {
+                if (elements.get(i).getAlias() != null) {
+                    aliases.put(elements.get(i).getAlias().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            // every method the proxy can be called with is checked here, a row never meets one it can't answer
+            for (Method method : type.getMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                    continue;
+                }
+                if (method.isDefault()) {
+                    defaults.put(method, defaultMethod(type, method));
+                    continue;
+                }
+                if (method.getParameterCount() != 0) {
+                    throw new IllegalArgumentException(type.getName() + "." + method.getName()
+                            + "() takes parameters, a projection interface only has getters and default methods");
+                }
+                Integer column = aliases.get(propertyName(method.getName()).toLowerCase(Locale.ROOT));
+                if (column == null) {
+                    throw new IllegalArgumentException("No column aliased " + propertyName(method.getName())
+                            + " in the query for " + type.getName() + "." + method.getName() + "()");
+                }
+                columns.put(method, column);
+            }
+        }
+
+        @Override
+        public D map(Object[] row) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new RowHandler(this, row)));
+        }
+
+        /* equals, hashCode and toString, also when the interface declares them again: answered by RowHandler */
+        private static boolean isObjectMethod(Method method) {
+            try {
+                Object.class.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+
+        /* the default method itself, called on the proxy */
+        private static MethodHandle defaultMethod(Class<?> type, Method method) {
+            try {
+                return MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflectSpecial(method, type);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot call the default method " + type.getName() + "."
+                        + method.getName() + "() of the projection", e);
+            }
+        }
+
+        private static String propertyName(String getter) {
+            String name = getter;
+            if (getter.startsWith("get") && getter.length() > 3) {
+                name = getter.substring(3);
+            } else if (getter.startsWith("is") && getter.length() > 2) {
+                name = getter.substring(2);
+            }
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+
+    private static final class RowHandler implements InvocationHandler {
+        private final InterfaceMapper<?> mapper;
+        private final Object[] row;
+
+        private RowHandler(InterfaceMapper<?> mapper, Object[] row) {
+            this.mapper = mapper;
+            this.row = row;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer column = mapper.columns.get(method);
+            if (column != null) {
+                return convert(row[column], method.getReturnType());
+            }
+            MethodHandle defaultMethod = mapper.defaults.get(method);
+            if (defaultMethod != null) {
+                return defaultMethod.bindTo(proxy).invokeWithArguments(args == null ? new Object[0] : args);
+            }
+            if (method.getName().equals("equals")) {
+                return proxy == args[0] || (args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                        && Proxy.getInvocationHandler(args[0]) instanceof RowHandler
+                        && ((RowHandler) Proxy.getInvocationHandler(args[0])).mapper.type == mapper.type
+                        && Arrays.equals(row, ((RowHandler) Proxy.getInvocationHandler(args[0])).row));
+            }
+            if (method.getName().equals("hashCode")) {
+                return Arrays.hashCode(row);
+            }
+            // toString, the other methods of Object aren't called through a proxy
+            return mapper.type.getSimpleName() + Arrays.toString(row);
+        }
+    }
+
+    private static final class ConstructorMapper<D> implements RowMapper<D> {
+        private final Constructor<D> constructor;
+        private final Class<?>[] parameterTypes;
+
+        @SuppressWarnings("unchecked")
+        private ConstructorMapper(Class<D> type, Tuple first) {
+            int columns = first.getElements().size();
+            Constructor<D> found = null;
+            for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+                if (candidate.getParameterCount() == columns) {
+                    if (found != null) {
+                        throw new IllegalArgumentException(type.getName() + " has more than one constructor with " + columns + " parameters");
+                    }
+                    found = (Constructor<D>) candidate;
+                }
+            }
+            if (found == null) {
+                throw new IllegalArgumentException(type.getName() + " has no constructor with " + columns + " parameters");
+            }
+            found.setAccessible(true);
+            this.constructor = found;
+            this.parameterTypes = found.getParameterTypes();
+        }
+
+        @Override
+        public D map(Object[] row) {
+            Object[] args = new Object[row.length];
+            for (int i = 0; i < row.length; i++) {
+                args[i] = convert(row[i], parameterTypes[i]);
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create " + constructor.getDeclaringClass().getName(), e);
+            }
+        }
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || !(value instanceof Number) || type.isInstance(value)) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (type == int.class || type == Integer.class) {
+            return number.intValue();
+        }
+        if (type == long.class || type == Long.class) {
+            return number.longValue();
+        }
+        if (type == double.class || type == Double.class) {
+            return number.doubleValue();
+        }
+        if (type == float.class || type == Float.class) {
+            return number.floatValue();
+        }
+        if (type == short.class || type == Short.class) {
+            return number.shortValue();
+        }
+        if (type == byte.class || type == Byte.class) {
+            return number.byteValue();
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(number.toString());
+        }
+        if (type == BigInteger.class) {
+            return new BigDecimal(number.toString()).toBigInteger();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,354 @@
+package org.example.common.sql;
+
+import org.example.common.events.AsyncConsole;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+A latency histogram per SqlFingerprint, for every statement the application runs, and a report of the statements
+slower than a threshold with the named query or JPQL they come from:
+
+    Slow query: 812.345 ms (over 500 ms), named query Product.all
+        select product0_.id as id1_0_, ... from Product product0_
+
+p50/p99/max are in dump(), snapshot(), and in JMX under org.example.common.sql:type=QueryLatencies.
+
+It's on for the units whose Hibernate statistics come from QueryLatenciesFactory (see there), the statements are
+timed by SqlLogListener, the SQL comes from SqlStatementInspector. On the thread running the statement it costs a
+map lookup (by the SQL string, the fingerprint is computed once per distinct SQL) and a histogram increment.
+
+The origin of a fingerprint is found the first time its query returns (Hibernate reports the JPQL then), a slow
+statement is reported right away when its origin is known, otherwise when its query returns or its session ends.
+Statements of getResultStream() / scroll() have no origin, Hibernate doesn't report these queries.
+ */
+public final class QueryLatencies {
+    private static final Logger LOG = Logger.getLogger(QueryLatencies.class.getName());
+    private static final String NONE = "";
+    private static final String OTHER = "(other statements, over max_fingerprints)";
+    private static final int MAX_PENDING = 32;
+
+    private static final ThreadLocal<Pending> PENDING = ThreadLocal.withInitial(Pending::new);
+    private static final Map<String, Entry> BY_SQL = new ConcurrentHashMap<>();
+    private static final Map<String, Entry> BY_FINGERPRINT = new ConcurrentHashMap<>();
+    private static final LongAdder SLOW = new LongAdder();
+
+    private static volatile boolean enabled;
+    private static volatile long thresholdMicros = 500_000;
+    private static volatile int maxFingerprints = 1000;
+    private static ObjectName objectName;
+
+    private QueryLatencies() {
+    }
+
+    /* called by QueryLatenciesFactory for every unit using it, the last settings win */
+    static synchronized void install(boolean enabled, long thresholdMillis, int maxFingerprints) {
+        QueryLatencies.thresholdMicros = thresholdMillis * 1000;
+        QueryLatencies.maxFingerprints = maxFingerprints;
+        QueryLatencies.enabled = enabled;
+        if (objectName == null) {
+            objectName = register();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        QueryLatencies.enabled = enabled;
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return thresholdMicros / 1000;
+    }
+
+    public static void setSlowQueryThresholdMillis(long millis) {
+        thresholdMicros = millis * 1000;
+    }
+
+    /* every fingerprint, by total time, the slowest first */
+    public static List<QuerySnapshot> snapshot() {
+        List<QuerySnapshot> snapshots = new ArrayList<>(BY_FINGERPRINT.size());
+        for (Entry entry : BY_FINGERPRINT.values()) {
+            String origin = entry.origin;
+            snapshots.add(new QuerySnapshot(entry.fingerprint, origin == null ? NONE : origin,
+                    entry.histogram, entry.slow.sum()));
+        }
+        snapshots.sort(Comparator.comparingDouble(QuerySnapshot::getTotalMillis).reversed());
+        return snapshots;
+    }
+
+    public static String dump() {
+        List<QuerySnapshot> snapshots = snapshot();
+        StringBuilder text = new StringBuilder();
+        String separator = System.lineSeparator();
+        text.append(snapshots.size()).append(" statement(s) by total time, slow is over ")
+                .append(getSlowQueryThresholdMillis()).append(" ms").append(separator)
+                .append(String.format("%8s %10s %9s %9s %9s %5s  %s", "count", "total ms", "p50 ms", "p99 ms",
+                        "max ms", "slow", "origin / fingerprint")).append(separator);
+        for (QuerySnapshot snapshot : snapshots) {
+            text.append(snapshot).append(separator);
+        }
+        return text.toString();
+    }
+
+    public static void reset() {
+        BY_SQL.clear();
+        BY_FINGERPRINT.clear();
+        SLOW.reset();
+    }
+
+    /* called by SqlLogListener when a statement (or a batch) has run on this thread */
+    static void executed(long nanos, boolean batch) {
+        String sql = SqlStatementInspector.lastPrepared();
+        if (sql == null) {
+            return;
+        }
+        Pending pending = PENDING.get();
+        pending.executed(sql);
+        Entry entry = BY_SQL.get(sql);
+        if (entry == null) {
+            entry = entry(sql);
+        }
+        long micros = nanos / 1000;
+        entry.histogram.record(micros);
+        if (entry.origin == null) {
+            pending.unattributed(entry, sql);
+        }
+        if (micros >= thresholdMicros) {
+            entry.slow.increment();
+            SLOW.increment();
+            if (entry.origin != null) {
+                reportSlow(entry, micros, batch);
+            } else {
+                pending.slow(entry, micros, batch);
+            }
+        }
+    }
+
+    /*
+    Called by the statistics of QueryLatenciesFactory when a query returns, identifier is its JPQL, or for a native
+    query its SQL as Hibernate prepares it (parameters as ?, the dialect may add a limit or a lock at the end).
+    Its own statements are among the ones run on this thread since the last query returned, the others
+    (auto flush, loads of associations) aren't run by a query. sqlOfJpql gives the SQL Hibernate makes of a JPQL.
+     */
+    static void queryExecuted(Map<String, String> namedQueries, Function<String, String[]> sqlOfJpql, String identifier) {
+        Pending pending = PENDING.get();
+        if (pending.isEmpty()) {
+            pending.executed.clear();
+            return;
+        }
+        String name = namedQueries.get(identifier);
+        String origin = name != null ? "named query " + name : identifier;
+        String[] querySql = null;
+        if (!pending.unattributed.isEmpty()) {
+            querySql = pending.ranStatementStartingWith(identifier) ? new String[]{identifier} : sqlOfJpql.apply(identifier);
+        }
+        for (int i = 0; i < pending.unattributed.size(); i++) {
+            Entry entry = pending.unattributed.get(i);
+            if (entry.origin == null) {
+                entry.origin = isStatementOf(querySql, pending.unattributedSql.get(i)) ? origin : NONE;
+            }
+        }
+        pending.clearUnattributed();
+        pending.reportSlow();
+    }
+
+    /* called by SqlLogListener when a session ends, what is left doesn't belong to a query */
+    static void sessionEnded() {
+        Pending pending = PENDING.get();
+        if (pending.isEmpty()) {
+            pending.executed.clear();
+            return;
+        }
+        for (Entry entry : pending.unattributed) {
+            if (entry.origin == null) {
+                entry.origin = NONE;
+            }
+        }
+        pending.clearUnattributed();
+        pending.reportSlow();
+    }
+
+    private static Entry entry(String sql) {
+        String fingerprint = SqlFingerprint.of(sql);
+        Entry entry = BY_FINGERPRINT.get(fingerprint);
+        if (entry == null) {
+            if (BY_FINGERPRINT.size() >= maxFingerprints) {
+                fingerprint = OTHER;
+            }
+            entry = BY_FINGERPRINT.computeIfAbsent(fingerprint, Entry::new);
+        }
+        // SQL with literals in it would fill the map, these are fingerprinted on every execution
+        if (BY_SQL.size() < 4 * maxFingerprints) {
+            BY_SQL.put(sql, entry);
+        }
+        return entry;
+    }
+
+    /* contains: the dialect may add to the SQL of the query (limit, lock) */
+    private static boolean isStatementOf(String[] querySql, String sql) {
+        for (String statement : querySql) {
+            if (sql.contains(statement)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void reportSlow(Entry entry, long micros, boolean batch) {
+        String origin = entry.origin == null || entry.origin.isEmpty()
+                ? "no query (entity load, flush or native SQL)" : entry.origin;
+        AsyncConsole.println(String.format("Slow query: %.3f ms (over %d ms)%s, %s%n    %s",
+                micros / 1000.0, getSlowQueryThresholdMillis(), batch ? " [batch]" : "", origin, entry.fingerprint));
+    }
+
+    private static ObjectName register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName("org.example.common.sql:type=QueryLatencies");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MXBean(), name);
+            }
+            return name;
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Could not register the query statistics in JMX", e);
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder slow = new LongAdder();
+        // null until known, NONE when no query runs the statement
+        private volatile String origin;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /* the statements of this thread waiting for their origin, a few at a time */
+    private static final class Pending {
+        // the SQL run since the last query returned, the most recent ones
+        private final Deque<String> executed = new ArrayDeque<>(MAX_PENDING);
+        private final List<Entry> unattributed = new ArrayList<>();
+        private final List<String> unattributedSql = new ArrayList<>();
+        private final List<Entry> slow = new ArrayList<>();
+        private final List<long[]> slowTimes = new ArrayList<>();
+
+        void executed(String sql) {
+            if (executed.size() == MAX_PENDING) {
+                executed.removeFirst();
+            }
+            executed.addLast(sql);
+        }
+
+        /* a JPQL never starts like the SQL made of it, Hibernate adds aliases to the select */
+        boolean ranStatementStartingWith(String nativeSql) {
+            for (String sql : executed) {
+                if (sql.startsWith(nativeSql)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void unattributed(Entry entry, String sql) {
+            if (!unattributed.contains(entry) && unattributed.size() < MAX_PENDING) {
+                unattributed.add(entry);
+                unattributedSql.add(sql);
+            }
+        }
+
+        void clearUnattributed() {
+            executed.clear();
+            unattributed.clear();
+            unattributedSql.clear();
+        }
+
+        void slow(Entry entry, long micros, boolean batch) {
+            if (slow.size() >= MAX_PENDING) {
+                QueryLatencies.reportSlow(entry, micros, batch);
+                return;
+            }
+            slow.add(entry);
+            slowTimes.add(new long[]{micros, batch ? 1 : 0});
+        }
+
+        boolean isEmpty() {
+            return unattributed.isEmpty() && slow.isEmpty();
+        }
+
+        void reportSlow() {
+            for (int i = 0; i < slow.size(); i++) {
+                long[] time = slowTimes.get(i);
+                QueryLatencies.reportSlow(slow.get(i), time[0], time[1] == 1);
+            }
+            slow.clear();
+            slowTimes.clear();
+        }
+    }
+
+    private static final class MXBean implements QueryLatenciesMXBean {
+        @Override
+        public boolean isEnabled() {
+            return QueryLatencies.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            QueryLatencies.setEnabled(enabled);
+        }
+
+        @Override
+        public long getSlowQueryThresholdMillis() {
+            return QueryLatencies.getSlowQueryThresholdMillis();
+        }
+
+        @Override
+        public void setSlowQueryThresholdMillis(long millis) {
+            QueryLatencies.setSlowQueryThresholdMillis(millis);
+        }
+
+        @Override
+        public int getFingerprintCount() {
+            return BY_FINGERPRINT.size();
+        }
+
+        @Override
+        public long getSlowQueries() {
+            return SLOW.sum();
+        }
+
+        @Override
+        public List<QuerySnapshot> getQueries() {
+            return snapshot();
+        }
+
+        @Override
+        public String dump() {
+            return QueryLatencies.dump();
+        }
+
+        @Override
+        public void reset() {
+            QueryLatencies.reset();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.common.sql;
+
+import org.example.common.metrics.TimedStatistics;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.hibernate.hql.spi.QueryTranslatorFactory;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/*
+Hibernate statistics (with the transaction times of TimedStatistics) that also tell QueryLatencies which JPQL
+(or named query) ran the statements, and switch QueryLatencies on for the unit. In persistence.xml, next to the
+SqlLogListener and SqlStatementInspector:
+
+    <property name="hibernate.generate_statistics" value="true" />
+    <property name="hibernate.stats.factory" value="org.example.common.sql.QueryLatenciesFactory" />
+    <property name="example.query_latencies.slow_threshold_ms" value="500" />
+    <property name="example.query_latencies.max_fingerprints" value="1000" />
+    <property name="example.query_latencies.enabled" value="true" />
+ */
+public class QueryLatenciesFactory implements StatisticsFactory {
+    public static final String PREFIX = "example.query_latencies.";
+    public static final String ENABLED = PREFIX + "enabled";
+    public static final String SLOW_THRESHOLD_MS = PREFIX + "slow_threshold_ms";
+    public static final String MAX_FINGERPRINTS = PREFIX + "max_fingerprints";
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor factory) {
+        Map<String, Object> settings = factory.getProperties();
+        QueryLatencies.install(ConfigurationHelper.getBoolean(ENABLED, settings, true),
+                ConfigurationHelper.getLong(SLOW_THRESHOLD_MS, settings, 500),
+                ConfigurationHelper.getInt(MAX_FINGERPRINTS, settings, 1000));
+        return new Statistics(factory, ConfigurationHelper.getInt(MAX_FINGERPRINTS, settings, 1000));
+    }
+
+    private static class Statistics extends TimedStatistics {
+        private static final Logger LOG = Logger.getLogger(QueryLatenciesFactory.class.getName());
+        private static final String[] NO_SQL = new String[0];
+
+        private final SessionFactoryImplementor factory;
+        private final int maxQueries;
+        private final Map<String, String[]> sqlOfJpql = new ConcurrentHashMap<>();
+        private volatile Map<String, String> namedQueries;
+
+        Statistics(SessionFactoryImplementor factory, int maxQueries) {
+            super(factory);
+            this.factory = factory;
+            this.maxQueries = maxQueries;
+        }
+
+        @Override
+        public void queryExecuted(String hql, int rows, long time) {
+            super.queryExecuted(hql, rows, time);
+            if (QueryLatencies.isEnabled()) {
+                QueryLatencies.queryExecuted(namedQueries(), this::sqlOf, hql);
+            }
+        }
+
+        /* the SQL of a JPQL, compiled once (QueryLatencies only asks for the queries that ran a new statement) */
+        private String[] sqlOf(String jpql) {
+            String[] sql = sqlOfJpql.get(jpql);
+            if (sql == null) {
+                sql = compile(jpql);
+                if (sqlOfJpql.size() < maxQueries) {
+                    sqlOfJpql.put(jpql, sql);
+                }
+            }
+            return sql;
+        }
+
+        private String[] compile(String jpql) {
+            QueryTranslator translator = factory.getServiceRegistry().getService(QueryTranslatorFactory.class)
+                    .createQueryTranslator(jpql, jpql, Collections.emptyMap(), factory, null);
+            try {
+                translator.compile(Collections.emptyMap(), false);
+                return translator.collectSqlStrings().toArray(NO_SQL);
+            } catch (HibernateException e) {
+                // Hibernate has just run it, but the statistics must never fail the query
+                LOG.log(Level.FINE, "Could not compile " + jpql, e);
+                return NO_SQL;
+            }
+        }
+
+        /* query -> name, read from the entities once the metamodel is there */
+        private Map<String, String> namedQueries() {
+            Map<String, String> names = namedQueries;
+            if (names == null) {
+                names = new HashMap<>();
+                for (EntityType<?> entity : factory.getMetamodel().getEntities()) {
+                    Class<?> type = entity.getJavaType();
+                    for (NamedQuery query : type.getAnnotationsByType(NamedQuery.class)) {
+                        names.put(query.query(), query.name());
+                    }
+                    for (NamedNativeQuery query : type.getAnnotationsByType(NamedNativeQuery.class)) {
+                        names.put(query.query(), query.name());
+                    }
+                }
+                namedQueries = names;
+            }
+            return names;
+        }
+    }
+}
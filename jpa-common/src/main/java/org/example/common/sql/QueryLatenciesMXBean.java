@@ -0,0 +1,28 @@
+package org.example.common.sql;
+
+import java.util.List;
+
+/*
+What QueryLatencies exports through JMX, under org.example.common.sql:type=QueryLatencies
+ */
+public interface QueryLatenciesMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getSlowQueryThresholdMillis();
+
+    void setSlowQueryThresholdMillis(long millis);
+
+    int getFingerprintCount();
+
+    long getSlowQueries();
+
+    /* by total time, the slowest first */
+    List<QuerySnapshot> getQueries();
+
+    String dump();
+
+    void reset();
+}
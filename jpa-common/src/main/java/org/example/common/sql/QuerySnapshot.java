@@ -0,0 +1,66 @@
+package org.example.common.sql;
+
+/*
+The latencies of one SqlFingerprint at the time of QueryLatencies.snapshot(), in milliseconds.
+The origin is the named query or the JPQL that runs the statement, "" when no query does (entity loads, flushes).
+ */
+public final class QuerySnapshot {
+    private final String fingerprint;
+    private final String origin;
+    private final long count;
+    private final long slowCount;
+    private final double totalMillis;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    QuerySnapshot(String fingerprint, String origin, LatencyHistogram histogram, long slowCount) {
+        this.fingerprint = fingerprint;
+        this.origin = origin;
+        this.count = histogram.getCount();
+        this.slowCount = slowCount;
+        this.totalMillis = histogram.getTotalMicros() / 1000.0;
+        this.p50Millis = histogram.percentile(0.50) / 1000.0;
+        this.p99Millis = histogram.percentile(0.99) / 1000.0;
+        this.maxMillis = histogram.getMaxMicros() / 1000.0;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSlowCount() {
+        return slowCount;
+    }
+
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%8d %10.3f %9.3f %9.3f %9.3f %5d  %s%n%57s%s",
+                count, totalMillis, p50Millis, p99Millis, maxMillis, slowCount,
+                origin.isEmpty() ? "(no query: entity load, flush or native SQL)" : origin, "", fingerprint);
+    }
+}
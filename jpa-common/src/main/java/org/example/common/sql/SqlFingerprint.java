@@ -0,0 +1,75 @@
+package org.example.common.sql;
+
+import java.util.regex.Pattern;
+
+/*
+The shape of a statement without its values, the same for every execution of the same query:
+- string and number literals become ?
+- IN lists of any length become IN (?...)
+- runs of whitespace become one space
+Identifiers such as product0_ keep their digits.
+
+    select p.id from Product p where p.name = 'A' and p.id in (?, ?, ?)
+    select p.id from Product p where p.name = ? and p.id in (?...)
+ */
+public final class SqlFingerprint {
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)+\\)");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        int length = sql.length();
+        StringBuilder out = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipString(sql, i + 1);
+                out.append('?');
+            } else if (Character.isDigit(c) && !continuesIdentifier(out)) {
+                while (i < length && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+                    out.append(' ');
+                }
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        out.setLength(end);
+        return IN_LIST.matcher(out).replaceAll("(?...)");
+    }
+
+    /* the index after the closing quote, '' is a quote inside the string */
+    private static int skipString(String sql, int i) {
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean continuesIdentifier(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$' || last == '`' || last == '"';
+    }
+}
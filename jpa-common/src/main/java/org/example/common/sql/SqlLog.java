@@ -0,0 +1,134 @@
+package org.example.common.sql;
+
+import org.example.common.events.EventPipeline;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+The SQL log that replaces hibernate.show_sql: show_sql prints every statement on the JDBC thread, under the
+lock of System.out, with no limit. Here the thread running the statement only takes the time and hands
+(sql, duration) to an EventPipeline; a background thread turns the SQL into its SqlFingerprint (no values) and
+prints it with the duration:
+
+    SQL    0.412 ms  select product0_.id as id1_0_0_, ... from Product product0_ where product0_.id=?
+
+- sampling: only a share of the statements is logged (-Dexample.sql_log.sample_rate=0.1, default 1)
+- rate limit: at most max_per_second lines a second, the others are counted and reported as one line
+  (-Dexample.sql_log.max_per_second=100)
+- the pipeline drops entries rather than slowing the application down when the log can't keep up
+- -Dexample.sql_log.enabled=false, or setEnabled(false), turns it off: one volatile read per statement
+
+In persistence.xml, SqlStatementInspector hands the SQL over and SqlLogListener times the JDBC calls:
+
+    <property name="hibernate.session_factory.statement_inspector" value="org.example.common.sql.SqlStatementInspector" />
+    <property name="hibernate.session.events.auto" value="org.example.common.sql.SqlLogListener" />
+
+The SQL of a JDBC batch is the last statement prepared on the thread, with several batches open at once
+(hibernate.order_inserts off) it can be the SQL of another one.
+ */
+public final class SqlLog {
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("example.sql_log.enabled", "true"));
+    private static volatile double sampleRate =
+            Double.parseDouble(System.getProperty("example.sql_log.sample_rate", "1"));
+    private static volatile int maxPerSecond = Integer.getInteger("example.sql_log.max_per_second", 100);
+
+    private static final EventPipeline<Entry> PIPELINE = new EventPipeline<>("sql-log",
+            Integer.getInteger("example.sql_log.capacity", 8192), 512, EventPipeline.Overflow.DROP, SqlLog::print);
+
+    // consumer thread only
+    private static long second;
+    private static int printedThisSecond;
+    private static long suppressed;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PIPELINE::close, "sql-log-shutdown"));
+    }
+
+    private SqlLog() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        SqlLog.enabled = enabled;
+    }
+
+    public static void setSampleRate(double sampleRate) {
+        SqlLog.sampleRate = sampleRate;
+    }
+
+    public static void setMaxPerSecond(int maxPerSecond) {
+        SqlLog.maxPerSecond = maxPerSecond;
+    }
+
+    /* waits until what was logged so far is printed */
+    public static void flush() {
+        PIPELINE.flush();
+    }
+
+    public static EventPipeline<?> pipeline() {
+        return PIPELINE;
+    }
+
+    /* called by SqlLogListener when a statement (or a batch) has run on this thread */
+    static void executed(long nanos, boolean batch) {
+        String sql = SqlStatementInspector.lastPrepared();
+        if (sql == null) {
+            return;
+        }
+        double rate = sampleRate;
+        if (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        PIPELINE.publish(new Entry(sql, nanos, batch));
+    }
+
+    private static void print(List<Entry> entries) {
+        StringBuilder text = new StringBuilder(entries.size() * 120);
+        String separator = System.lineSeparator();
+        int limit = maxPerSecond;
+        for (Entry entry : entries) {
+            long now = System.nanoTime() / 1_000_000_000L;
+            if (now != second) {
+                if (suppressed > 0) {
+                    text.append("SQL log: ").append(suppressed).append(" statement(s) not printed (over ")
+                            .append(limit).append(" a second)").append(separator);
+                }
+                second = now;
+                printedThisSecond = 0;
+                suppressed = 0;
+            }
+            if (printedThisSecond >= limit) {
+                suppressed++;
+                continue;
+            }
+            printedThisSecond++;
+            text.append(String.format("SQL %8.3f ms  ", entry.nanos / 1e6))
+                    .append(entry.batch ? "[batch] " : "")
+                    .append(SqlFingerprint.of(entry.sql))
+                    .append(separator);
+        }
+        if (text.length() > 0) {
+            PrintStream out = System.out;
+            out.print(text);
+            out.flush();
+        }
+    }
+
+    private static final class Entry {
+        private final String sql;
+        private final long nanos;
+        private final boolean batch;
+
+        private Entry(String sql, long nanos, boolean batch) {
+            this.sql = sql;
+            this.nanos = nanos;
+            this.batch = batch;
+        }
+    }
+}
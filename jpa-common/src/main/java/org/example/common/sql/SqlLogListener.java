@@ -0,0 +1,66 @@
+package org.example.common.sql;
+
+import org.hibernate.BaseSessionEventListener;
+
+/*
+Times every JDBC execution of a session for SqlLog and QueryLatencies and counts it for StatementCounter,
+Hibernate creates one per session:
+
+    <property name="hibernate.session.events.auto" value="org.example.common.sql.SqlLogListener" />
+ */
+public class SqlLogListener extends BaseSessionEventListener {
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        if (timing()) {
+            statementStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        StatementCounter.executed();
+        if (statementStart != 0) {
+            executed(System.nanoTime() - statementStart, false);
+            statementStart = 0;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        if (timing()) {
+            batchStart = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        StatementCounter.executed();
+        if (batchStart != 0) {
+            executed(System.nanoTime() - batchStart, true);
+            batchStart = 0;
+        }
+    }
+
+    @Override
+    public void end() {
+        if (QueryLatencies.isEnabled()) {
+            QueryLatencies.sessionEnded();
+        }
+    }
+
+    private static boolean timing() {
+        return SqlLog.isEnabled() || QueryLatencies.isEnabled();
+    }
+
+    private static void executed(long nanos, boolean batch) {
+        if (SqlLog.isEnabled()) {
+            SqlLog.executed(nanos, batch);
+        }
+        if (QueryLatencies.isEnabled()) {
+            QueryLatencies.executed(nanos, batch);
+        }
+    }
+}
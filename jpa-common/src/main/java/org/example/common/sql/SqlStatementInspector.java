@@ -0,0 +1,56 @@
+package org.example.common.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+Hibernate takes a single StatementInspector per persistence unit, this one hands every SQL statement,
+just before it's prepared, to all the listeners registered here. In persistence.xml:
+
+    <property name="hibernate.session_factory.statement_inspector" value="org.example.common.sql.SqlStatementInspector" />
+
+The statement itself is never changed. Listeners are called on the thread running the statement and must be fast.
+The last statement prepared on each thread, and the inspector (so the unit) it went through, is kept for SqlLog,
+QueryLatencies and StatementCounter, which time or count it when it runs. Hibernate makes one inspector per unit.
+ */
+public class SqlStatementInspector implements StatementInspector {
+    private static final List<Consumer<String>> LISTENERS = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Prepared> LAST_PREPARED = ThreadLocal.withInitial(Prepared::new);
+
+    public static void addListener(Consumer<String> listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Consumer<String> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /* the SQL of the statement this thread prepared last, null before the first one */
+    static String lastPrepared() {
+        return LAST_PREPARED.get().sql;
+    }
+
+    /* the inspector of the unit that prepared it */
+    static SqlStatementInspector lastInspector() {
+        return LAST_PREPARED.get().inspector;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Prepared prepared = LAST_PREPARED.get();
+        prepared.sql = sql;
+        prepared.inspector = this;
+        for (Consumer<String> listener : LISTENERS) {
+            listener.accept(sql);
+        }
+        return sql;
+    }
+
+    private static final class Prepared {
+        private String sql;
+        private SqlStatementInspector inspector;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.common.sql;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+Counts the SQL statements the current thread runs in a persistence unit, to catch N+1 selects:
+
+    try (StatementCounter counter = StatementCounter.start(emf)) {
+        List<Professor> professors = em.createQuery("SELECT p FROM Professor p", Professor.class).getResultList();
+        professors.forEach(p -> p.getStudents().size());
+        counter.assertAtMostPerRoot(professors.size(), 1);
+    }
+
+What is counted are the JDBC executions: a statement each time it runs, a JDBC batch once per executeBatch, however
+many rows it holds (one round-trip). The statements of other threads and other units aren't counted.
+
+The persistence unit must use SqlStatementInspector and SqlLogListener, otherwise nothing would be counted and
+every check would pass, start() refuses such a unit.
+ */
+public final class StatementCounter implements AutoCloseable {
+    private static final List<StatementCounter> COUNTING = new CopyOnWriteArrayList<>();
+
+    private final Thread owner = Thread.currentThread();
+    private final SqlStatementInspector inspector;
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    private StatementCounter(SqlStatementInspector inspector) {
+        this.inspector = inspector;
+        COUNTING.add(this);
+    }
+
+    public static StatementCounter start(EntityManagerFactory emf) {
+        SessionFactoryOptions options = emf.unwrap(SessionFactoryImplementor.class).getSessionFactoryOptions();
+        StatementInspector inspector = options.getStatementInspector();
+        if (!(inspector instanceof SqlStatementInspector)) {
+            throw new IllegalStateException("Set hibernate.session_factory.statement_inspector to "
+                    + SqlStatementInspector.class.getName() + " to count statements");
+        }
+        Class<?> sessionListener = options.getBaselineSessionEventsListenerBuilder().getAutoListener();
+        if (sessionListener == null || !SqlLogListener.class.isAssignableFrom(sessionListener)) {
+            throw new IllegalStateException("Set hibernate.session.events.auto to "
+                    + SqlLogListener.class.getName() + " to count statements");
+        }
+        return new StatementCounter((SqlStatementInspector) inspector);
+    }
+
+    /* called by SqlLogListener when a statement (or a batch) has run on this thread */
+    static void executed() {
+        if (COUNTING.isEmpty()) {
+            return;
+        }
+        SqlStatementInspector unit = SqlStatementInspector.lastInspector();
+        for (StatementCounter counter : COUNTING) {
+            if (counter.owner == Thread.currentThread() && counter.inspector == unit) {
+                counter.statements.add(SqlStatementInspector.lastPrepared());
+            }
+        }
+    }
+
+    public int count() {
+        return statements.size();
+    }
+
+    public List<String> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public void assertAtMost(int maxStatements) {
+        if (count() > maxStatements) {
+            throw new AssertionError("Expected at most " + maxStatements + " statements but " + count() + " ran:" + describe());
+        }
+    }
+
+    /*
+    Fails when the statements are more than statementsPerRoot times the number of roots (the entities the code
+    path starts from), the usual sign of a lazy association loaded once per root.
+     */
+    public void assertAtMostPerRoot(int roots, double statementsPerRoot) {
+        if (roots > 0 && count() > roots * statementsPerRoot) {
+            throw new AssertionError(String.format("Expected at most %.2f statements per root entity but %d ran for %d roots:%s",
+                    statementsPerRoot, count(), roots, describe()));
+        }
+    }
+
+    private String describe() {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        for (String sql : statements()) {
+            repeated.merge(sql, 1, Integer::sum);
+        }
+        StringBuilder description = new StringBuilder();
+        repeated.forEach((sql, times) -> description.append(System.lineSeparator())
+                .append(times).append(" x ").append(sql));
+        return description.toString();
+    }
+
+    @Override
+    public void close() {
+        COUNTING.remove(this);
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.common.stream;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.Query;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/*
+Reads a query of any size with constant memory:
+
+    try (Stream<Product> products = ResultStreams.stream(em, em.createQuery("SELECT p FROM Product p", Product.class))) {
+        products.forEach(exporter::write);
+    }
+
+- the rows are read through a forward-only cursor, fetchSize rows at a time, instead of all at once
+- the entities are read-only (no snapshot for dirty checking) and bypass the second-level cache
+- the persistence context is cleared every clearEvery rows, so an entity is detached once the stream moved past it,
+  don't change entities you get from the stream and expect the change to be saved
+- the stream must be closed (try-with-resources), it holds the JDBC result set open
+
+MySQL Connector/J ignores the fetch size and reads the whole result set into memory, unless the URL has
+useCursorFetch=true (server-side cursor). Without it the rows are streamed one by one (fetch size Integer.MIN_VALUE),
+in that mode the connection can't run any other statement until the stream is closed, so no lazy loading while iterating.
+ */
+public final class ResultStreams {
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    public static final int DEFAULT_CLEAR_EVERY = 1000;
+
+    private ResultStreams() {
+    }
+
+    public static <T> Stream<T> stream(EntityManager em, TypedQuery<T> query) {
+        return stream(em, query, DEFAULT_FETCH_SIZE, DEFAULT_CLEAR_EVERY);
+    }
+
+    public static <T> Stream<T> stream(EntityManager em, TypedQuery<T> query, int fetchSize, int clearEvery) {
+        if (fetchSize <= 0 || clearEvery <= 0) {
+            throw new IllegalArgumentException("fetchSize and clearEvery must be positive");
+        }
+        Session session = em.unwrap(Session.class);
+        @SuppressWarnings("unchecked")
+        Query<T> hibernateQuery = query.unwrap(Query.class);
+        ScrollableResults results = hibernateQuery
+                .setFetchSize(jdbcFetchSize(session, fetchSize))
+                .setReadOnly(true)
+                .setCacheable(false)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private long count;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean tryAdvance(Consumer<? super T> action) {
+                // the previous rows were handed out already, nobody should still need them managed
+                if (count > 0 && count % clearEvery == 0) {
+                    session.clear();
+                }
+                if (!results.next()) {
+                    return false;
+                }
+                count++;
+                Object[] row = results.get();
+                action.accept((T) (row.length == 1 ? row[0] : row));
+                return true;
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(results::close);
+    }
+
+    private static int jdbcFetchSize(Session session, int fetchSize) {
+        Dialect dialect = session.getSessionFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (!(dialect instanceof MySQLDialect)) {
+            return fetchSize;
+        }
+        String url = session.doReturningWork(connection -> connection.getMetaData().getURL());
+        return url != null && url.contains("useCursorFetch=true") ? fetchSize : Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.pool.ConnectionPool;
+import org.example.entities.Product;
+import org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Runs short transactions (em.find(Product.class, 1)) from many threads, once with Hibernate's
+built-in DriverManager connection provider and once with the pool of jpa-common.
+
+By default it uses the database of persistence.xml, to run it against a local embedded
+database put its driver on the classpath and pass -Djdbc.url=... (and -Djdbc.driver, -Djdbc.user,
+-Djdbc.password), the product table is created if it doesn't exist.
+ */
+public class ConnectionPoolLoadTest {
+    private static final int THREADS = Integer.getInteger("threads", 32);
+    private static final long RUN_MILLIS = Long.getLong("run.millis", 10_000);
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Object> overrides = new HashMap<>();
+        copy("jdbc.url", "javax.persistence.jdbc.url", overrides);
+        copy("jdbc.driver", "javax.persistence.jdbc.driver", overrides);
+        copy("jdbc.user", "javax.persistence.jdbc.user", overrides);
+        copy("jdbc.password", "javax.persistence.jdbc.password", overrides);
+        if (overrides.containsKey("javax.persistence.jdbc.url")) {
+            overrides.put("hibernate.hbm2ddl.auto", "update");
+        }
+
+        Map<String, Object> withoutPool = new HashMap<>(overrides);
+        withoutPool.put("hibernate.connection.provider_class", DriverManagerConnectionProviderImpl.class.getName());
+
+        run("DriverManager provider", withoutPool);
+        run("jpa-common pool", overrides);
+    }
+
+    private static void copy(String systemProperty, String setting, Map<String, Object> overrides) {
+        String value = System.getProperty(systemProperty);
+        if (value != null) {
+            overrides.put(setting, value);
+        }
+    }
+
+    private static void run(String name, Map<String, Object> overrides) throws InterruptedException {
+        EntityManagerFactory emf = PersistenceUnits.get(PersistenceUnits.DEFAULT_UNIT, overrides);
+        LongAdder transactions = new LongAdder();
+        LongAdder failures = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    EntityManager em = emf.createEntityManager();
+                    try {
+                        em.getTransaction().begin();
+                        em.find(Product.class, 1);
+                        em.getTransaction().commit();
+                        transactions.increment();
+                    } catch (RuntimeException e) {
+                        failures.increment();
+                        if (em.getTransaction().isActive()) {
+                            em.getTransaction().rollback();
+                        }
+                    } finally {
+                        em.close();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%-24s %d threads: %.0f tx/s, %d failures%n",
+                name, THREADS, transactions.sum() * 1000.0 / RUN_MILLIS, failures.sum());
+
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(ConnectionProvider.class);
+        if (provider.isUnwrappableAs(ConnectionPool.class)) {
+            ConnectionPool pool = provider.unwrap(ConnectionPool.class);
+            System.out.printf("%-24s total=%d idle=%d borrowed=%d timeouts=%d avg wait=%.3f ms max wait=%.3f ms%n", "",
+                    pool.getTotalConnections(), pool.getIdleConnections(), pool.getConnectionsBorrowed(),
+                    pool.getConnectionTimeouts(), pool.getAverageWaitMillis(), pool.getMaxWaitMillis());
+        }
+    }
+}
@@ -1,18 +1,10 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.*;
 
-import javax.persistence.EntityManager;
-import javax.persistence.EntityManagerFactory;
-import javax.persistence.Persistence;
-
 public class Main {
     public static void main(String[] args) {
-        // Entity Manager Factory
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-        // Entity Manager
-        EntityManager em = emf.createEntityManager();
-
         Bicycle bicycle = new Bicycle();
         bicycle.setName("Bicycle");
         bicycle.setModel("Bicycle2022");
@@ -21,15 +13,10 @@ public class Main {
         car.setName("Car");
         car.setGas("Petrol");
 
-        try {
-            em.getTransaction().begin();
+        // the Entity Manager Factory is built once and shared, the Entity Manager only lives for this transaction
+        Jpa.inTransaction(em -> {
             em.persist(bicycle);
             em.persist(car);
-            em.getTransaction().commit();
-        } catch (Exception e) {
-            em.getTransaction().rollback();
-        } finally {
-            em.close();
-        }
+        });
     }
 }
\ No newline at end of file
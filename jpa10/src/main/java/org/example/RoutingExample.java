@@ -0,0 +1,40 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.inheritance.SubtypeRouter;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Employee;
+import org.example.entities.Manager;
+
+public class RoutingExample {
+
+    public static void main(String[] args) {
+        long[] ids = Jpa.fromTransaction(em -> {
+            Employee employee = new Employee();
+            employee.setName("Emp1");
+
+            Manager manager = new Manager();
+            manager.setName("Man1");
+            manager.setResponsibility("Manage");
+
+            em.persist(employee);
+            em.persist(manager);
+            return new long[]{employee.getId(), manager.getId()};
+        });
+
+        for (long id : ids) {
+            // em.find(Employee.class, id) would read the UNION ALL of Employee and Manager
+            Jpa.inTransaction(em -> {
+                try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                    Employee found = SubtypeRouter.find(em, Employee.class, id);
+                    System.out.println(id + " -> " + found.getClass().getSimpleName() + " " + found.getName());
+                    counter.assertAtMost(1);
+                    if (counter.statements().stream().anyMatch(sql -> sql.contains("union"))) {
+                        throw new AssertionError("find(" + id + ") read more than one table: " + counter.statements());
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.inheritance.SubtypeLoader;
+import org.example.common.sql.SqlLog;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/*
+Loads pages of products by id from a JOINED hierarchy of 6 subtypes, once with the polymorphic query (an outer
+join of every subclass table) and once with SubtypeLoader (the type index, then one query per subtype with its
+own table only), and prints the time of each.
+
+The first run fills the tables up to -Drows with native multi-row inserts (IDENTITY ids don't batch), the
+product_type column and the new subclass tables have to exist (see the README).
+
+    -Drows=1000000 -Dpages=200 -DpageSize=1000
+ */
+public class JoinedLoadBenchmark {
+    private static final int ROWS = Integer.getInteger("rows", 1_000_000);
+    private static final int PAGES = Integer.getInteger("pages", 200);
+    private static final int PAGE_SIZE = Integer.getInteger("pageSize", 1000);
+
+    private static final String[][] SUBTYPES = {
+            {"Chocolate", "kcal", "100"},
+            {"Coffee", "roast", "'dark'"},
+            {"Tea", "origin", "'Assam'"},
+            {"Juice", "fruit", "'orange'"},
+            {"Cheese", "ageMonths", "12"},
+            {"Bread", "flour", "'rye'"},
+    };
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+        fill(emf);
+        List<List<Long>> pages = pages(emf);
+
+        check(emf, pages.get(0));
+        run("polymorphic query", emf, pages, (em, ids) -> em
+                .createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+                .setParameter("ids", ids)
+                .getResultList());
+        run("type index + subtypes", emf, pages, (em, ids) -> SubtypeLoader.load(em, Product.class, ids));
+    }
+
+    /* same products, same classes, and no statement of the SubtypeLoader joins all the subclass tables */
+    private static void check(EntityManagerFactory emf, List<Long> ids) {
+        String joined = describe(emf, ids, (em, page) -> em
+                .createQuery("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id", Product.class)
+                .setParameter("ids", page)
+                .getResultList());
+        try (StatementCounter counter = StatementCounter.start(emf)) {
+            String loaded = describe(emf, ids, (em, page) -> SubtypeLoader.load(em, Product.class, page));
+            if (!joined.equals(loaded)) {
+                throw new AssertionError("SubtypeLoader loaded other products than the polymorphic query");
+            }
+            if (counter.statements().stream().anyMatch(sql -> sql.contains("left outer join"))) {
+                throw new AssertionError("SubtypeLoader outer joined the subclass tables: " + counter.statements());
+            }
+            System.out.println(ids.size() + " products checked, SubtypeLoader used " + counter.count() + " statements");
+        }
+    }
+
+    private static String describe(EntityManagerFactory emf, List<Long> ids, BiFunction<EntityManager, List<Long>, List<Product>> load) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return load.apply(em, ids).stream()
+                    .map(p -> p.getId() + ":" + p.getClass().getSimpleName())
+                    .collect(Collectors.joining(","));
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void run(String name, EntityManagerFactory emf, List<List<Long>> pages,
+                            BiFunction<EntityManager, List<Long>, List<Product>> load) {
+        for (List<Long> page : pages.subList(0, Math.min(20, pages.size()))) {
+            loadPage(emf, page, load);
+        }
+        long rows = 0;
+        long start = System.nanoTime();
+        for (List<Long> page : pages) {
+            rows += loadPage(emf, page, load);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%-22s %d pages, %d products: %6d ms, %.0f products/s%n",
+                name, pages.size(), rows, millis, rows * 1000.0 / Math.max(1, millis));
+    }
+
+    private static int loadPage(EntityManagerFactory emf, List<Long> ids, BiFunction<EntityManager, List<Long>, List<Product>> load) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return load.apply(em, ids).size();
+        } finally {
+            em.close();
+        }
+    }
+
+    /* random pages of consecutive ids, each one a mix of all the subtypes */
+    private static List<List<Long>> pages(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long count = em.createQuery("SELECT count(p) FROM Product p", Long.class).getSingleResult();
+            Random random = new Random(42);
+            return random.ints(PAGES, 0, (int) Math.max(1, count - PAGE_SIZE))
+                    .mapToObj(offset -> em.createQuery("SELECT p.id FROM Product p ORDER BY p.id", Long.class)
+                            .setFirstResult(offset)
+                            .setMaxResults(PAGE_SIZE)
+                            .getResultList())
+                    .collect(Collectors.toList());
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void fill(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long existing = ((Number) em.createNativeQuery("SELECT count(*) FROM Product").getSingleResult()).longValue();
+            long nextId = ((Number) em.createNativeQuery("SELECT coalesce(max(id), 0) FROM Product").getSingleResult()).longValue() + 1;
+            for (long done = existing; done < ROWS; ) {
+                em.getTransaction().begin();
+                for (int statement = 0; statement < 50 && done < ROWS; statement++) {
+                    int rows = (int) Math.min(1000, ROWS - done);
+                    insert(em, nextId, rows);
+                    nextId += rows;
+                    done += rows;
+                }
+                em.getTransaction().commit();
+                System.out.println(done + " / " + ROWS + " products");
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    /* ids from..from+rows-1, the subtype is id % 6 */
+    private static void insert(EntityManager em, long from, int rows) {
+        StringBuilder products = new StringBuilder("INSERT INTO Product (id, name, product_type) VALUES ");
+        StringBuilder[] subtypes = new StringBuilder[SUBTYPES.length];
+        for (long id = from; id < from + rows; id++) {
+            String[] subtype = SUBTYPES[(int) (id % SUBTYPES.length)];
+            products.append(id == from ? "" : ",").append("(").append(id).append(", 'product ").append(id)
+                    .append("', '").append(subtype[0]).append("')");
+            int index = (int) (id % SUBTYPES.length);
+            if (subtypes[index] == null) {
+                subtypes[index] = new StringBuilder("INSERT INTO " + subtype[0] + " (id, " + subtype[1] + ") VALUES ");
+            } else {
+                subtypes[index].append(",");
+            }
+            subtypes[index].append("(").append(id).append(", ").append(subtype[2]).append(")");
+        }
+        em.createNativeQuery(products.toString()).executeUpdate();
+        for (StringBuilder subtype : subtypes) {
+            if (subtype != null) {
+                em.createNativeQuery(subtype.toString()).executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.SqlLog;
+import org.example.common.stream.ResultStreams;
+import org.example.dto.AnimalName;
+import org.example.entities.Animal;
+import org.example.entities.Cat;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*
+Subtype scans of the single Animal table: the cats (animal_type = 1), the plain animals as entities and the
+plain animals as AnimalName (id and name only). Prints the plan MySQL picks for the cat scan, then the time and
+rows of each scan, streamed so that 10M rows don't have to fit in memory.
+
+The first run fills the table up to -Drows with native multi-row inserts, -DcatPercent of them cats; the
+animal_type column and its index have to exist (see the README).
+
+    -Drows=10000000 -DcatPercent=10 -Druns=3
+ */
+public class SubtypeScanBenchmark {
+    private static final int ROWS = Integer.getInteger("rows", 10_000_000);
+    private static final int CAT_PERCENT = Integer.getInteger("catPercent", 10);
+    private static final int RUNS = Integer.getInteger("runs", 3);
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+        fill(emf);
+        explain(emf, "SELECT id, name, color FROM Animal WHERE animal_type = 1");
+
+        for (int run = 1; run <= RUNS; run++) {
+            System.out.println("run " + run);
+            scan("cats", emf, em -> em.createQuery("SELECT c FROM Cat c", Cat.class));
+            scan("animals", emf, em -> em.createQuery("SELECT a FROM Animal a WHERE TYPE(a) = Animal", Animal.class));
+            scan("animal names", emf, em -> em.createNamedQuery("Animal.namesOfType", AnimalName.class)
+                    .setParameter("type", Animal.class));
+        }
+    }
+
+    private static <T> void scan(String name, EntityManagerFactory emf, Function<EntityManager, TypedQuery<T>> query) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long start = System.nanoTime();
+            long rows;
+            try (Stream<T> results = ResultStreams.stream(em, query.apply(em))) {
+                rows = results.count();
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("  %-13s %9d rows: %6d ms, %.0f rows/s%n", name, rows, millis, rows * 1000.0 / Math.max(1, millis));
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void explain(EntityManagerFactory emf, String sql) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Object[]> plan = em.createNativeQuery("EXPLAIN " + sql).getResultList();
+            System.out.println(sql);
+            plan.forEach(row -> System.out.println("  " + Arrays.toString(row)));
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void fill(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            long existing = ((Number) em.createNativeQuery("SELECT count(*) FROM Animal").getSingleResult()).longValue();
+            long report = existing + 1_000_000;
+            for (long done = existing; done < ROWS; ) {
+                em.getTransaction().begin();
+                for (int statement = 0; statement < 50 && done < ROWS; statement++) {
+                    int rows = (int) Math.min(1000, ROWS - done);
+                    insert(em, done, rows);
+                    done += rows;
+                }
+                em.getTransaction().commit();
+                if (done >= report || done == ROWS) {
+                    System.out.println(done + " / " + ROWS + " animals");
+                    report += 1_000_000;
+                }
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void insert(EntityManager em, long from, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO Animal (name, color, animal_type) VALUES ");
+        for (long i = from; i < from + rows; i++) {
+            boolean cat = i % 100 < CAT_PERCENT;
+            sql.append(i == from ? "" : ",")
+                    .append(cat ? "('Cat " : "('Animal ").append(i).append("', ")
+                    .append(cat ? "'grey', 1)" : "NULL, 0)");
+        }
+        em.createNativeQuery(sql.toString()).executeUpdate();
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.dto;
+
+/*
+The columns every animal has, read with the named query Animal.namesOfType:
+SELECT new org.example.dto.AnimalName(a.id, a.name) FROM Animal a WHERE TYPE(a) = :type
+The subclass columns (null for the plain animals) are not selected and nothing is hydrated.
+ */
+public class AnimalName {
+    private final long id;
+    private final String name;
+
+    public AnimalName(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "AnimalName{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.entities;
+
+import javax.persistence.Entity;
+
+@Entity
+public class Bread extends Product {
+
+    private String flour;
+
+    public String getFlour() {
+        return flour;
+    }
+
+    public void setFlour(String flour) {
+        this.flour = flour;
+    }
+}
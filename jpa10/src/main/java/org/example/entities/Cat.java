@@ -1,8 +1,10 @@
 package org.example.entities;
 
+import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
 
 @Entity
+@DiscriminatorValue("1")
 public class Cat extends Animal{
 
     private String color;
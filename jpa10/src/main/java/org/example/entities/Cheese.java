@@ -0,0 +1,17 @@
+package org.example.entities;
+
+import javax.persistence.Entity;
+
+@Entity
+public class Cheese extends Product {
+
+    private int ageMonths;
+
+    public int getAgeMonths() {
+        return ageMonths;
+    }
+
+    public void setAgeMonths(int ageMonths) {
+        this.ageMonths = ageMonths;
+    }
+}
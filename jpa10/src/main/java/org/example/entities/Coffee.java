@@ -0,0 +1,17 @@
+package org.example.entities;
+
+import javax.persistence.Entity;
+
+@Entity
+public class Coffee extends Product {
+
+    private String roast;
+
+    public String getRoast() {
+        return roast;
+    }
+
+    public void setRoast(String roast) {
+        this.roast = roast;
+    }
+}
@@ -1,11 +1,24 @@
 package org.example.entities;
 
+import org.example.common.inheritance.SubtypeCode;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 @Entity
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS )
+@SubtypeCode(0)
 public class Employee {
+    // one sequence for the whole hierarchy, the last two digits are the @SubtypeCode (see SubtypeRouter)
     @Id
+    @GeneratedValue(generator = "employee_id")
+    @GenericGenerator(name = "employee_id", strategy = "org.example.common.inheritance.SubtypeIdGenerator",
+            parameters = {
+                    @Parameter(name = "table_name", value = "hibernate_sequences"),
+                    @Parameter(name = "segment_value", value = "employee"),
+                    @Parameter(name = "increment_size", value = "50")
+            })
     private Long id;
 
     private String name;
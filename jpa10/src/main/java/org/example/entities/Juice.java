@@ -0,0 +1,17 @@
+package org.example.entities;
+
+import javax.persistence.Entity;
+
+@Entity
+public class Juice extends Product {
+
+    private String fruit;
+
+    public String getFruit() {
+        return fruit;
+    }
+
+    public void setFruit(String fruit) {
+        this.fruit = fruit;
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.entities;
 
+import org.example.common.inheritance.SubtypeCode;
+
 import javax.persistence.Entity;
 
 @Entity
+@SubtypeCode(1)
 public class Manager extends Employee{
 
     private String responsibility;
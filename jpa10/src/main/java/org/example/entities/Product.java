@@ -4,6 +4,10 @@ import javax.persistence.*;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
+// JOINED does not need it, it lets us know the subtype without the joins. Hibernate makes it NOT NULL, the
+// default makes the rows inserted without it products
+@DiscriminatorColumn(name = "product_type", columnDefinition = "VARCHAR(31) DEFAULT 'Product'")
+@Table(indexes = @Index(name = "product_type_idx", columnList = "product_type, id"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,17 @@
+package org.example.entities;
+
+import javax.persistence.Entity;
+
+@Entity
+public class Tea extends Product {
+
+    private String origin;
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+}
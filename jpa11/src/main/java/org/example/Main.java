@@ -1,28 +1,21 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.Product;
 
-import javax.persistence.EntityManager;
-import javax.persistence.EntityManagerFactory;
-import javax.persistence.Persistence;
-
 public class Main {
     public static void main(String[] args) {
-        // Entity Manager Factory
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-        // Entity Manager
-        EntityManager em = emf.createEntityManager();
-
-
-
-        em.getTransaction().begin();
-
-        Product p = em.find(Product.class, 2L);
-        p.setName("Product"); // since this instance is on the context it will update it in the DB also
-        em.refresh(p); // this will update the instance with what we have in the DB
-
-        em.getTransaction().commit();
-        em.close();
-
+        // the Entity Manager Factory is built once and shared, the Entity Manager only lives for this transaction
+        Jpa.inTransaction(em -> {
+            Product p = em.find(Product.class, 2L);
+            p.setName("Product"); // since this instance is on the context it will update it in the DB also
+            em.refresh(p); // this will update the instance with what we have in the DB
+        });
+
+        // in a read-only transaction Hibernate keeps no snapshot of the product and never flushes
+        Jpa.inReadOnlyTransaction(em -> {
+            Product p = em.find(Product.class, 2L);
+            p.setName("Product"); // not saved
+        });
     }
-}
\ No newline at end of file
+}
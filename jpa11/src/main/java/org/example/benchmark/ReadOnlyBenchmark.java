@@ -0,0 +1,88 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+Loads every product in a normal transaction and in a read-only one (Jpa.fromReadOnlyTransaction) and prints,
+for each, the CPU time of the whole transaction (the commit is where the dirty checking happens), the bytes
+allocated and the heap still used while the products are in the persistence context.
+
+    -Dproducts=100000 products are created first if the table has fewer
+    -Drounds=5 rounds, the first ones warm the JIT up, the last one is printed
+ */
+public class ReadOnlyBenchmark {
+    private static final int PRODUCTS = Integer.getInteger("products", 100_000);
+    private static final int ROUNDS = Integer.getInteger("rounds", 5);
+
+    public static void main(String[] args) {
+        createProducts();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            boolean print = round == ROUNDS;
+            measure("read-write transaction", print, Jpa::fromTransaction);
+            measure("read-only transaction", print, Jpa::fromReadOnlyTransaction);
+        }
+    }
+
+    private static void createProducts() {
+        long existing = Jpa.fromTransaction(em ->
+                em.createQuery("SELECT count(p) FROM Product p", Long.class).getSingleResult());
+        if (existing >= PRODUCTS) {
+            return;
+        }
+        Jpa.inTransaction(em -> {
+            long next = em.createQuery("SELECT coalesce(max(p.id), 0) FROM Product p", Long.class).getSingleResult() + 1;
+            for (long i = existing; i < PRODUCTS; i++, next++) {
+                Product p = new Product();
+                p.setId(next);
+                p.setName("Product " + next);
+                em.persist(p);
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+
+    private static void measure(String name, boolean print,
+                                Function<Function<EntityManager, Integer>, Integer> transaction) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long[] retained = new long[1];
+        long[] gcCpu = new long[1];
+
+        long heapBefore = usedHeapAfterGc();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        int rows = transaction.apply(em -> {
+            List<Product> products = em.createQuery("SELECT p FROM Product p", Product.class).getResultList();
+            // measured while the persistence context still holds the products (and their snapshots)
+            long cpuBeforeGc = threads.getCurrentThreadCpuTime();
+            retained[0] = usedHeapAfterGc() - heapBefore;
+            gcCpu[0] = threads.getCurrentThreadCpuTime() - cpuBeforeGc;
+            return products.size();
+        });
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore - gcCpu[0];
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        if (print) {
+            System.out.printf("%-24s %d products: cpu %d ms, allocated %d MB, retained %d MB%n", name, rows,
+                    cpu / 1_000_000, allocated / (1024 * 1024), retained[0] / (1024 * 1024));
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.export.CsvFormat;
+import org.example.common.export.NdjsonFormat;
+import org.example.common.export.PartitionedExporter;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ExportExample {
+
+    public static void main(String[] args) throws IOException {
+        EntityManagerFactory emf = PersistenceUnits.get();
+
+        Map<String, Function<Product, Object>> columns = new LinkedHashMap<>();
+        columns.put("id", Product::getId);
+        columns.put("name", Product::getName);
+        columns.put("price", Product::getPrice);
+
+        // one thread per core, but no more than the connection pool can serve (example.pool.max_size)
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), 10);
+
+        // how the export scales, the output is thrown away so the disk doesn't count
+        for (int t = 1; t <= threads; t *= 2) {
+            long start = System.nanoTime();
+            long rows = new PartitionedExporter<>(emf, Product.class, "id", t)
+                    .export(new CsvFormat<>(columns), Writer.nullWriter());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%2d threads: %d products in %.2f s, %.0f products/s%n", t, rows, seconds, rows / seconds);
+        }
+
+        try (Writer csv = Files.newBufferedWriter(Paths.get("products.csv"), StandardCharsets.UTF_8);
+             Writer ndjson = Files.newBufferedWriter(Paths.get("products.ndjson"), StandardCharsets.UTF_8)) {
+            PartitionedExporter<Product> exporter = new PartitionedExporter<>(emf, Product.class, "id", threads);
+            System.out.println(exporter.export(new CsvFormat<>(columns), csv) + " products written to products.csv");
+            System.out.println(exporter.export(new NdjsonFormat<>(columns), ndjson) + " products written to products.ndjson");
+        }
+    }
+}
@@ -1,20 +1,16 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.Product;
 
-import javax.persistence.Persistence;
 import javax.persistence.TypedQuery;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
-
-        var emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-        var em = emf.createEntityManager();
-
-        em.getTransaction().begin();
-
-        //        String jpql = "SELECT p FROM Product p";
+        // the Entity Manager Factory is built once and shared, the Entity Manager only lives for this transaction
+        Jpa.inTransaction(em -> {
+//        String jpql = "SELECT p FROM Product p";
 //        TypedQuery<Product> q = em.createQuery(jpql, Product.class);
 
 //        String jpql = "SELECT p FROM Product p WHERE p.price > :price";
@@ -24,7 +20,7 @@ public class Main {
 //        String jpql = "SELECT SUM(p.price) FROM Product p WHERE p.price > :price";
 //        TypedQuery<Double> q = em.createQuery(jpql, Double.class);
 //        q.setParameter("price", 10.0);
-//
+    //
 //        double sum = q.getSingleResult();
 //        System.out.println(sum);
 //        list.forEach(System.out::println);
@@ -44,21 +40,19 @@ public class Main {
 //        List<Product> products = q.getResultList();
 //        products.forEach(System.out::println);
 
-        String jpql = "SELECT p FROM Product p";
-
-        TypedQuery<Product> q = em.createQuery(jpql, Product.class);
-        List<Product> products = q.getResultList();
+            String jpql = "SELECT p FROM Product p";
 
-        products.forEach(System.out::println);
+            TypedQuery<Product> q = em.createQuery(jpql, Product.class);
+            List<Product> products = q.getResultList();
 
+            products.forEach(System.out::println);
 
-        TypedQuery<Product> namedQuery =
-                em.createNamedQuery("Product.all", Product.class);
-        List<Product> products1 = namedQuery.getResultList();
 
-        products1.forEach(System.out::println);
+            TypedQuery<Product> namedQuery =
+                    em.createNamedQuery("Product.all", Product.class);
+            List<Product> products1 = namedQuery.getResultList();
 
-        em.getTransaction().commit();
-        em.close();
+            products1.forEach(System.out::println);
+        });
     }
 }
\ No newline at end of file
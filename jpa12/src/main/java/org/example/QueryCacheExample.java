@@ -0,0 +1,54 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.entities.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+
+public class QueryCacheExample {
+
+    public static void main(String[] args) {
+        // first call goes to the database, the next ones are answered by the query cache
+        for (int i = 0; i < 3; i++) {
+            List<Product> products = Jpa.fromTransaction(em ->
+                    em.createNamedQuery("Product.all", Product.class).getResultList());
+            System.out.println(products);
+        }
+
+        // the cache key includes the parameters, id 1 and id 2 are cached separately
+        for (int id : new int[]{1, 1, 2, 2}) {
+            List<Product> products = Jpa.fromTransaction(em ->
+                    em.createNamedQuery("Product.findById", Product.class)
+                            .setParameter("id", id)
+                            .getResultList());
+            System.out.println(products);
+        }
+
+        // writing the product table invalidates every cached result on it
+        Jpa.inTransaction(em -> {
+            Product p = em.find(Product.class, 1);
+            if (p != null) {
+                p.setPrice(p.getPrice() + 1);
+            }
+        });
+        Jpa.withEntityManager(em -> em.createNamedQuery("Product.all", Product.class).getResultList()); // database again
+
+        printStatistics("Product.all");
+        printStatistics("Product.findById");
+    }
+
+    private static void printStatistics(String queryName) {
+        String jpql = Jpa.withEntityManager(em -> em.createNamedQuery(queryName)
+                .unwrap(org.hibernate.query.Query.class)
+                .getQueryString());
+        Statistics statistics = PersistenceUnits.get().unwrap(SessionFactory.class).getStatistics();
+        QueryStatistics query = statistics.getQueryStatistics(jpql);
+        System.out.printf("%s: executed=%d (avg %d ms), cache hits=%d, cache misses=%d, cache puts=%d%n",
+                queryName, query.getExecutionCount(), query.getExecutionAvgTime(),
+                query.getCacheHitCount(), query.getCacheMissCount(), query.getCachePutCount());
+    }
+}
@@ -0,0 +1,41 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.events.AsyncConsole;
+import org.example.common.sql.QueryLatencies;
+import org.example.entities.Product;
+
+/*
+Runs the queries of Main a few hundred times and prints where the database time went, then runs them again with
+a threshold of 0 ms, so that every statement is reported as slow with its named query or JPQL.
+The same numbers are in JMX (jconsole, org.example.common.sql / QueryLatencies) while the application runs.
+ */
+public class QueryLatenciesExample {
+    private static final int RUNS = Integer.getInteger("runs", 300);
+
+    public static void main(String[] args) {
+        for (int i = 0; i < RUNS; i++) {
+            runQueries();
+        }
+        System.out.println(QueryLatencies.dump());
+
+        QueryLatencies.setSlowQueryThresholdMillis(0);
+        runQueries();
+        AsyncConsole.flush();
+    }
+
+    private static void runQueries() {
+        Jpa.inReadOnlyTransaction(em -> {
+            // Product.all is cacheable, without the hint the query cache would answer after the first call
+            em.createNamedQuery("Product.all", Product.class)
+                    .setHint("org.hibernate.cacheable", false)
+                    .getResultList();
+            em.createQuery("SELECT p FROM Product p WHERE p.price > :price", Product.class)
+                    .setParameter("price", 10.0)
+                    .getResultList();
+            em.createQuery("SELECT SUM(p.price) FROM Product p WHERE p.price > :price", Double.class)
+                    .setParameter("price", 10.0)
+                    .getSingleResult();
+        });
+    }
+}
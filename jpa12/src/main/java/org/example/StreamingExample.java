@@ -0,0 +1,33 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.stream.ResultStreams;
+import org.example.entities.Product;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+public class StreamingExample {
+
+    public static void main(String[] args) {
+        // getResultList() would load every product (and keep all of them managed) before we see the first one,
+        // here memory stays flat however many products there are
+        Jpa.withEntityManager(em -> {
+            Runtime runtime = Runtime.getRuntime();
+            long count = 0;
+            double total = 0;
+            try (Stream<Product> products = ResultStreams.stream(em,
+                    em.createQuery("SELECT p FROM Product p", Product.class), 1000, 1000)) {
+                for (Iterator<Product> it = products.iterator(); it.hasNext(); ) {
+                    total += it.next().getPrice();
+                    if (++count % 100_000 == 0) {
+                        System.out.printf("%d products, heap used %d MB%n",
+                                count, (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+                    }
+                }
+            }
+            System.out.printf("%d products, total price %.2f%n", count, total);
+            return count;
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.projection.Projections;
+import org.example.common.sql.SqlLog;
+import org.example.dto.ProductSummary;
+import org.example.dto.ProductView;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+Reads all products the ways a read-heavy endpoint could, and prints for each one the latency and the bytes
+allocated per call (measured with com.sun.management.ThreadMXBean, so HotSpot / OpenJDK only).
+Every call uses a new EntityManager, as a request would.
+
+    -Diterations=2000 calls are measured per mode, after as many warm-up calls
+ */
+public class ProjectionBenchmark {
+    private static final int ITERATIONS = Integer.getInteger("iterations", 2000);
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+
+        run(emf, "TypedQuery<Product>", em ->
+                em.createQuery("SELECT p FROM Product p", Product.class).getResultList());
+        run(emf, "TypedQuery<Product> read-only", em ->
+                em.createQuery("SELECT p FROM Product p", Product.class)
+                        .setHint("org.hibernate.readOnly", true)
+                        .getResultList());
+        run(emf, "constructor expression", em ->
+                em.createNamedQuery("Product.summaries", ProductSummary.class).getResultList());
+        run(emf, "interface projection", em ->
+                Projections.list(em.createQuery("SELECT p.id AS id, p.name AS name, p.price AS price FROM Product p",
+                        Tuple.class), ProductView.class));
+        run(emf, "native + constructor", em ->
+                em.createNativeQuery("SELECT id, name, price FROM product", "ProductSummary").getResultList());
+    }
+
+    private static void run(EntityManagerFactory emf, String name, Function<EntityManager, List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            call(emf, query);
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        long rows = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            rows += call(emf, query);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Arrays.sort(nanos);
+        System.out.printf("%-30s %d rows: p50=%.1f us p99=%.1f us, %d KB allocated per call%n", name,
+                rows / ITERATIONS, nanos[ITERATIONS / 2] / 1000.0, nanos[ITERATIONS * 99 / 100] / 1000.0,
+                allocated / ITERATIONS / 1024);
+    }
+
+    private static int call(EntityManagerFactory emf, Function<EntityManager, List<?>> query) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            int rows = query.apply(em).size();
+            // the commit is where entities pay for dirty checking
+            em.getTransaction().commit();
+            return rows;
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.QueryLatencies;
+import org.example.common.sql.SqlLog;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+
+/*
+Runs the price filter and the SUM of Main with QueryLatencies off and on, alternately, and prints the latency
+of each call, the difference is what the histograms cost. The SQL log is off in both.
+
+    -Diterations=5000 calls are measured per run, -Druns=3 runs per mode
+ */
+public class QueryLatenciesBenchmark {
+    private static final int ITERATIONS = Integer.getInteger("iterations", 5000);
+    private static final int RUNS = Integer.getInteger("runs", 3);
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+        if (!QueryLatencies.isEnabled()) {
+            throw new IllegalStateException("QueryLatencies is off, see hibernate.stats.factory in persistence.xml");
+        }
+
+        for (int run = 0; run < RUNS; run++) {
+            run(emf, false);
+            run(emf, true);
+        }
+        System.out.println(QueryLatencies.dump());
+    }
+
+    private static void run(EntityManagerFactory emf, boolean enabled) {
+        QueryLatencies.setEnabled(enabled);
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            call(emf);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            call(emf);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("QueryLatencies %-3s %d calls: p50=%.1f us p99=%.1f us%n", enabled ? "on" : "off",
+                ITERATIONS, nanos[ITERATIONS / 2] / 1000.0, nanos[ITERATIONS * 99 / 100] / 1000.0);
+    }
+
+    private static void call(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.createQuery("SELECT p FROM Product p WHERE p.price > :price", Product.class)
+                    .setParameter("price", 10.0)
+                    .setHint("org.hibernate.readOnly", true)
+                    .getResultList();
+            em.createQuery("SELECT SUM(p.price) FROM Product p WHERE p.price > :price", Double.class)
+                    .setParameter("price", 10.0)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
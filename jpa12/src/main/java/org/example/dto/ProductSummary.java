@@ -0,0 +1,39 @@
+package org.example.dto;
+
+/*
+What a product list shows, read with a constructor expression:
+SELECT new org.example.dto.ProductSummary(p.id, p.name, p.price) FROM Product p
+Hibernate only calls the constructor, the persistence context never sees it.
+ */
+public class ProductSummary {
+    private final int id;
+    private final String name;
+    private final double price;
+
+    public ProductSummary(int id, String name, double price) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSummary{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", price=" + price +
+                '}';
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.dto;
+
+/*
+The same columns as an interface, filled by org.example.common.projection.Projections from a Tuple query,
+the column aliases are the property names: SELECT p.id AS id, p.name AS name, p.price AS price FROM Product p
+ */
+public interface ProductView {
+
+    int getId();
+
+    String getName();
+
+    double getPrice();
+}
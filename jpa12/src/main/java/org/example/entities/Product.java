@@ -1,13 +1,45 @@
 package org.example.entities;
 
 
+import javax.persistence.Cacheable;
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.SqlResultSetMapping;
 
+/*
+The results of Product.all and Product.findById are kept in the query cache (region product-catalogue), keyed by the
+query and its parameters. Hibernate drops them as soon as the product table is written through JPA
+(persist, merge, remove, bulk UPDATE/DELETE), writes made outside of JPA are not seen.
+The query cache only keeps the ids, the products themselves come from the entity cache, hence @Cacheable.
+
+Product.summaries and the ProductSummary mapping (for native queries) read DTOs instead of entities,
+for lists that only display products.
+ */
 @Entity
-@NamedQuery(name = "Product.all", query = "SELECT p FROM Product p")
-@NamedQuery(name = "Product.findById", query = "SELECT p FROM Product p WHERE p.id = :id")
+@Cacheable
+@NamedQuery(name = "Product.all", query = "SELECT p FROM Product p",
+        hints = {
+                @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                @QueryHint(name = "org.hibernate.cacheRegion", value = "product-catalogue")
+        })
+@NamedQuery(name = "Product.findById", query = "SELECT p FROM Product p WHERE p.id = :id",
+        hints = {
+                @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                @QueryHint(name = "org.hibernate.cacheRegion", value = "product-catalogue")
+        })
+@NamedQuery(name = "Product.summaries",
+        query = "SELECT new org.example.dto.ProductSummary(p.id, p.name, p.price) FROM Product p")
+@SqlResultSetMapping(name = "ProductSummary",
+        classes = @ConstructorResult(targetClass = org.example.dto.ProductSummary.class,
+                columns = {
+                        @ColumnResult(name = "id", type = int.class),
+                        @ColumnResult(name = "name", type = String.class),
+                        @ColumnResult(name = "price", type = double.class)
+                }))
 public class Product {
 
     @Id
@@ -1,22 +1,14 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.Product;
 
-import javax.persistence.Persistence;
-
 public class Example2 {
 
     public static void main(String[] args) {
-        var emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-
-        var em = emf.createEntityManager();
-
-        em.getTransaction().begin();
-
-        Product p = em.find(Product.class, 1);
-        p.setName("Product 2");
-
-        em.getTransaction().commit(); // UPDATE
-        em.close();
+        Jpa.inTransaction(em -> {
+            Product p = em.find(Product.class, 1);
+            p.setName("Product 2");
+        }); // UPDATE on commit
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,18 @@
 package org.example;
 
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
 import org.example.entities.Product;
 
-import javax.persistence.Persistence;
-
 public class Example4 {
 
     public static void main(String[] args) {
-        var emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-
-        var em = emf.createEntityManager();
-
-        em.getTransaction().begin();
-
-        Product p = em.find(Product.class, 2); // goes to L2 cache
-
-        // CACHE
-        var cache = emf.getCache();
-        System.out.println(cache.contains(Product.class, 2)); // false
+        Jpa.inTransaction(em -> {
+            Product p = em.find(Product.class, 2); // goes to L2 cache
 
-        em.getTransaction().commit();
-        em.close();
+            // CACHE
+            var cache = PersistenceUnits.get().getCache();
+            System.out.println(cache.contains(Product.class, 2)); // true
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.bulk.BulkInserter;
+import org.example.common.bulk.BulkMutator;
+import org.example.common.bulk.BulkMutator.BulkResult;
+import org.example.entities.Product;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class Example5 {
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Product p = new Product();
+            p.setName("Bulk " + i);
+            products.add(p);
+        }
+        Jpa.inTransaction(em -> new BulkInserter(em).insert(products));
+        int firstId = products.get(0).getId();
+
+        // one by one, like Example2: a SELECT and an UPDATE per product, @PreUpdate sets lastModified
+        long start = System.nanoTime();
+        Jpa.inTransaction(em -> em.createQuery("SELECT p FROM Product p WHERE p.name LIKE 'Bulk %'", Product.class)
+                .getResultList()
+                .forEach(p -> p.setName(p.getName() + " (one by one)")));
+        System.out.printf("one by one: %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        // one UPDATE for all of them, lastModified is set in the statement
+        Jpa.inTransaction(em -> em.find(Product.class, firstId)); // now in the L2 cache
+        LocalDateTime before = LocalDateTime.now().withNano(0); // DATETIME has no fractions of a second
+        BulkResult updated = Jpa.fromTransaction(em -> new BulkMutator(em).update(Product.class,
+                "e.name = CONCAT(e.name, ' (bulk)')", "e.name LIKE :prefix", Map.of("prefix", "Bulk %")));
+        System.out.println("bulk update: " + updated);
+
+        var cache = PersistenceUnits.get().getCache();
+        if (cache.contains(Product.class, firstId)) {
+            throw new AssertionError("The bulk update did not evict the Product region, product " + firstId + " is still cached");
+        }
+        Product first = Jpa.fromTransaction(em -> em.find(Product.class, firstId));
+        if (first.getLastModified().isBefore(before)) {
+            throw new AssertionError("The bulk update did not set lastModified: " + first);
+        }
+
+        BulkResult deleted = Jpa.fromTransaction(em -> new BulkMutator(em).delete(Product.class,
+                "e.name LIKE :prefix", Map.of("prefix", "Bulk %")));
+        System.out.println("bulk delete: " + deleted);
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.benchmark;
+
+import org.example.common.PersistenceUnits;
+import org.example.common.cache.BoundedRegionFactory;
+import org.example.common.cache.CacheRegionMXBean;
+import org.example.common.events.AsyncConsole;
+import org.example.common.sql.SqlLog;
+import org.example.entities.Product;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+Measures em.find(Product.class, id) with the second-level cache of persistence.xml and with the cache turned off.
+Every find uses a new EntityManager, otherwise the persistence context (the L1 cache) answers and
+neither run goes to the database.
+
+-Dproducts=100 products are created if the table has fewer, -Diterations=20000 finds are measured per run.
+ */
+public class CacheLatencyBenchmark {
+    private static final int PRODUCTS = Integer.getInteger("products", 100);
+    private static final int ITERATIONS = Integer.getInteger("iterations", 20_000);
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        Map<String, Object> withCache = new HashMap<>();
+        Map<String, Object> withoutCache = new HashMap<>(withCache);
+        withoutCache.put("hibernate.cache.use_second_level_cache", "false");
+        withoutCache.put("javax.persistence.sharedCache.mode", "NONE");
+
+        EntityManagerFactory cached = PersistenceUnits.get(PersistenceUnits.DEFAULT_UNIT, withCache);
+        EntityManagerFactory uncached = PersistenceUnits.get(PersistenceUnits.DEFAULT_UNIT, withoutCache);
+        List<Integer> ids = productIds(cached);
+
+        run("without L2 cache", uncached, ids);
+        run("with L2 cache", cached, ids);
+
+        var regionFactory = cached.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory();
+        if (regionFactory instanceof BoundedRegionFactory) {
+            for (CacheRegionMXBean region : ((BoundedRegionFactory) regionFactory).getRegionStatistics().values()) {
+                System.out.printf("region %s: size=%d hits=%d misses=%d puts=%d evictions=%d hit ratio=%.2f%n",
+                        region.getRegionName(), region.getSize(), region.getHits(), region.getMisses(),
+                        region.getPuts(), region.getEvictions(), region.getHitRatio());
+            }
+        }
+    }
+
+    private static List<Integer> productIds(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            long count = em.createQuery("SELECT count(p) FROM Product p", Long.class).getSingleResult();
+            for (long i = count; i < PRODUCTS; i++) {
+                Product p = new Product();
+                p.setName("Product " + i);
+                em.persist(p);
+            }
+            em.getTransaction().commit();
+            return em.createQuery("SELECT p.id FROM Product p", Integer.class).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void run(String name, EntityManagerFactory emf, List<Integer> ids) {
+        // Product prints every entity it loads (@PostLoad), the lines and their printing thread would be
+        // most of what we measure
+        AsyncConsole.flush();
+        AsyncConsole.setEnabled(false);
+        long[] nanos;
+        try {
+            nanos = measure(emf, ids);
+        } finally {
+            AsyncConsole.setEnabled(true);
+        }
+        System.out.printf("%-18s avg=%.1f us p50=%.1f us p99=%.1f us max=%.1f us%n", name,
+                Arrays.stream(nanos).average().orElse(0) / 1000,
+                nanos[ITERATIONS / 2] / 1000.0, nanos[ITERATIONS * 99 / 100] / 1000.0, nanos[ITERATIONS - 1] / 1000.0);
+    }
+
+    private static long[] measure(EntityManagerFactory emf, List<Integer> ids) {
+        // warm-up: JIT, connection pool and (when enabled) the cache itself
+        for (Integer id : ids) {
+            find(emf, id);
+        }
+
+        long[] nanos = new long[ITERATIONS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ITERATIONS; i++) {
+            Integer id = ids.get(random.nextInt(ids.size()));
+            long start = System.nanoTime();
+            find(emf, id);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void find(EntityManagerFactory emf, Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.find(Product.class, id);
+        } finally {
+            em.close();
+        }
+    }
+}
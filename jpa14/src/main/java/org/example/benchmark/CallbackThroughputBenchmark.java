@@ -0,0 +1,98 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.bulk.BulkInserter;
+import org.example.common.events.AsyncConsole;
+import org.example.common.sql.SqlLog;
+import org.example.common.stream.ResultStreams;
+import org.example.entities.Product;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+Loads -Dproducts products (each load calls Product.postLoad()) with the callback printing synchronously, like
+System.out.println, and through AsyncConsole, and prints the products loaded per second. For the async runs
+"printed" is the time until the last line is written too.
+
+Standard output goes to a temporary file during the runs (the console would make the synchronous runs even
+slower), the lines are the same as on the console.
+
+    -Dproducts=100000 -Druns=3
+ */
+public class CallbackThroughputBenchmark {
+    private static final int PRODUCTS = Integer.getInteger("products", 100_000);
+    private static final int RUNS = Integer.getInteger("runs", 3);
+
+    public static void main(String[] args) throws IOException {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+        createProducts(emf);
+
+        File file = File.createTempFile("callbacks", ".log");
+        file.deleteOnExit();
+        PrintStream console = System.out;
+        List<String> results = new ArrayList<>();
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), true)) {
+            System.setOut(out);
+            for (int run = 1; run <= RUNS; run++) {
+                results.add(run("synchronous", emf, true));
+                results.add(run("AsyncConsole", emf, false));
+            }
+        } finally {
+            System.setOut(console);
+        }
+        results.forEach(System.out::println);
+        System.out.println(AsyncConsole.pipeline());
+    }
+
+    private static String run(String name, EntityManagerFactory emf, boolean synchronous) {
+        AsyncConsole.setSynchronous(synchronous);
+        EntityManager em = emf.createEntityManager();
+        try {
+            long start = System.nanoTime();
+            long loaded;
+            try (Stream<Product> products = ResultStreams.stream(em,
+                    em.createQuery("SELECT p FROM Product p", Product.class))) {
+                loaded = products.count();
+            }
+            long loadNanos = System.nanoTime() - start;
+            AsyncConsole.flush();
+            long printedNanos = System.nanoTime() - start;
+            return String.format("%-13s %d products: loaded %6d ms (%.0f/s), printed %6d ms",
+                    name, loaded, loadNanos / 1_000_000, loaded * 1e9 / loadNanos, printedNanos / 1_000_000);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void createProducts(EntityManagerFactory emf) {
+        long existing = Jpa.fromTransaction(em -> em.createQuery("SELECT count(p) FROM Product p", Long.class)
+                .getSingleResult());
+        if (existing >= PRODUCTS) {
+            return;
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Product> products = new ArrayList<>();
+            for (long i = existing; i < PRODUCTS; i++) {
+                Product product = new Product();
+                product.setName("Product " + i);
+                products.add(product);
+            }
+            new BulkInserter(em).insert(products);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
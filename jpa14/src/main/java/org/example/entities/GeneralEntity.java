@@ -1,5 +1,7 @@
 package org.example.entities;
 
+import org.example.common.bulk.ModifiedTimestamp;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
@@ -12,6 +14,7 @@ public class GeneralEntity {
     @Column(name = "date_created")
     protected LocalDateTime dateCreated;
     @Column(name = "last_modified")
+    @ModifiedTimestamp // set by @PreUpdate, and by BulkMutator in bulk UPDATEs
     protected LocalDateTime lastModified;
 
     public Integer getId() {
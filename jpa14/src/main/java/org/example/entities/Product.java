@@ -1,5 +1,7 @@
 package org.example.entities;
 
+import org.example.common.events.AsyncConsole;
+
 import javax.persistence.*;
 
 @Entity
@@ -20,21 +22,24 @@ public class Product extends GeneralEntity {
     UPDATE -- @PreUpdate @PostUpdate
     REMOVE -- @PreRemove @PostRemove
     PERSIST -- @PrePersist @PostPersist
+
+    these callbacks run inside the hydration loop and the flush: the lines are printed by AsyncConsole on its own
+    thread, the timestamps of GeneralEntity are cheap and stay inline
      */
 
     @PostLoad
     public void postLoad() {
-        System.out.println("Entity " + this + " was loaded!");
+        AsyncConsole.println("Entity " + this + " was loaded!");
     }
 
     @PreRemove
     public void preRemove() {
-        System.out.println("Entity " + this + " will be removed.");
+        AsyncConsole.println("Entity " + this + " will be removed.");
     }
 
     @PostRemove
     public void postRemove() {
-        System.out.println("Entity " + this + " was removed.");
+        AsyncConsole.println("Entity " + this + " was removed.");
     }
 
     @Override
@@ -0,0 +1,104 @@
+package org.example.benchmark;
+
+import org.example.id.StripedPooledLoOptimizer;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.NoopOptimizer;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledOptimizer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+Compares the optimizers behind the key_generator table at 1, 8 and 32 concurrent writers.
+
+The table itself is simulated: every access holds a lock (the row lock of the key_generator row)
+for -Dround.trip.micros (default 200) to stand for the SELECT ... FOR UPDATE / UPDATE round-trip,
+so the numbers show how often writers have to queue on that row rather than raw database speed.
+ */
+public class IdGeneratorBenchmark {
+    private static final int[] WRITERS = {1, 8, 32};
+    private static final long RUN_MILLIS = Long.getLong("run.millis", 2000);
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(Long.getLong("round.trip.micros", 200));
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-28s %8s %16s %12s%n", "generator", "writers", "ids/s", "round-trips");
+        for (int writers : WRITERS) {
+            run("table, allocationSize=1", writers, () -> new NoopOptimizer(Integer.class, 1));
+            run("table, allocationSize=50", writers, () -> new PooledOptimizer(Integer.class, 50));
+            run("striped, block=1000", writers, () -> {
+                StripedPooledLoOptimizer optimizer = new StripedPooledLoOptimizer(Integer.class, 1000);
+                optimizer.configureStripes(8);
+                return optimizer;
+            });
+        }
+    }
+
+    private static void run(String name, int writers, Supplier<Optimizer> optimizers) throws InterruptedException {
+        Optimizer optimizer = optimizers.get();
+        KeyTable table = new KeyTable(optimizer.applyIncrementSizeToSourceValues() ? optimizer.getIncrementSize() : 1);
+        LongAdder generated = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+        Thread[] threads = new Thread[writers];
+        for (int i = 0; i < writers; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (System.nanoTime() < deadline) {
+                    optimizer.generate(table);
+                    generated.increment();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        double idsPerSecond = generated.sum() * 1000.0 / RUN_MILLIS;
+        System.out.printf("%-28s %8d %16.0f %12d%n", name, writers, idsPerSecond, table.accesses);
+    }
+
+    // stands for the key_generator row, one access = one locked round-trip
+    private static class KeyTable implements AccessCallback {
+        private final ReentrantLock rowLock = new ReentrantLock();
+        private final int increment;
+        private long value = 1;
+        private long accesses;
+
+        private KeyTable(int increment) {
+            this.increment = increment;
+        }
+
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            rowLock.lock();
+            try {
+                LockSupport.parkNanos(ROUND_TRIP_NANOS);
+                accesses++;
+                long current = value;
+                value += increment;
+                return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(current);
+            } finally {
+                rowLock.unlock();
+            }
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    }
+}
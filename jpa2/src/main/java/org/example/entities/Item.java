@@ -1,18 +1,24 @@
 package org.example.entities;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 @Entity
 public class Item {
     @Id
-    @TableGenerator(
+    @GenericGenerator(
             name = "key_generator",
-            table = "key_generator",
-            pkColumnName = "key_name",
-            pkColumnValue = "item_sequence",
-            valueColumnName = "key_value"
+            strategy = "org.example.id.StripedTableGenerator", // block size comes from persistence.xml
+            parameters = {
+                    @Parameter(name = "table_name", value = "key_generator"),
+                    @Parameter(name = "segment_column_name", value = "key_name"),
+                    @Parameter(name = "segment_value", value = "item_sequence"),
+                    @Parameter(name = "value_column_name", value = "key_value")
+            }
     )
-    @GeneratedValue(strategy = GenerationType.TABLE, generator = "key_generator")
+    @GeneratedValue(generator = "key_generator")
     private Integer id;
     private String name;
 
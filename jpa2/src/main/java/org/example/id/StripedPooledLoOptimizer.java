@@ -0,0 +1,118 @@
+package org.example.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Same "pooled-lo" contract as Hibernate's PooledLoOptimizer: every value read from the
+generator table is the low end of a block [value, value + incrementSize).
+
+The difference is that the blocks are spread over several stripes, a thread always takes
+its ids from the same stripe and the ids of a block are handed out with a single CAS,
+so writers only meet each other (and the key_generator row lock) when a block runs out.
+ */
+public class StripedPooledLoOptimizer implements Optimizer {
+    private final Class returnClass;
+    private final int incrementSize;
+
+    private Stripe[] stripes;
+    private int mask;
+
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    public StripedPooledLoOptimizer(Class returnClass, int incrementSize) {
+        if (incrementSize < 1) {
+            throw new IllegalArgumentException("increment size must be at least 1, but was " + incrementSize);
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+        configureStripes(1);
+    }
+
+    /*
+    must be called before the first id is generated, the stripe count is rounded up to a power of two
+     */
+    public void configureStripes(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        Stripe[] newStripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            newStripes[i] = new Stripe();
+        }
+        this.stripes = newStripes;
+        this.mask = size - 1;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & mask];
+        while (true) {
+            Block block = stripe.block;
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return toIdentifier(value);
+                }
+            }
+            synchronized (stripe) {
+                // another thread of the same stripe may already have reserved a new block
+                if (stripe.block == block) {
+                    IntegralDataTypeHolder sourceValue = callback.getNextValue();
+                    long lo = sourceValue.makeValue().longValue();
+                    stripe.block = new Block(lo, lo + incrementSize);
+                    lastSourceValue = sourceValue;
+                }
+            }
+        }
+    }
+
+    private Serializable toIdentifier(long value) {
+        if (returnClass == Long.class) {
+            return value;
+        }
+        if (returnClass == Integer.class) {
+            return (int) value;
+        }
+        return IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass).initialize(value).makeValue();
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private static final class Stripe {
+        private volatile Block block;
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long lo, long limit) {
+            this.next = new AtomicLong(lo);
+            this.limit = limit;
+        }
+    }
+}
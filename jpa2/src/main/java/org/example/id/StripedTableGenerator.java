@@ -0,0 +1,45 @@
+package org.example.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/*
+A TableGenerator that reserves a whole block of ids per round-trip to the generator table
+and hands them out from memory through StripedPooledLoOptimizer.
+
+The block size and the number of stripes come from persistence.xml, a setting suffixed with
+the segment value (e.g. example.id.block_size.item_sequence) wins over the global one.
+ */
+public class StripedTableGenerator extends TableGenerator {
+    public static final String BLOCK_SIZE = "example.id.block_size";
+    public static final String STRIPES = "example.id.stripes";
+
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String segment = params.getProperty(SEGMENT_VALUE_PARAM, DEF_SEGMENT_VALUE);
+
+        int blockSize = setting(settings, BLOCK_SIZE, segment, DEFAULT_BLOCK_SIZE);
+        int stripes = setting(settings, STRIPES, segment, Runtime.getRuntime().availableProcessors());
+
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.setProperty(OPT_PARAM, StripedPooledLoOptimizer.class.getName());
+        super.configure(type, params, serviceRegistry);
+
+        ((StripedPooledLoOptimizer) getOptimizer()).configureStripes(stripes);
+    }
+
+    private static int setting(Map settings, String name, String segment, int defaultValue) {
+        int global = ConfigurationHelper.getInt(name, settings, defaultValue);
+        return ConfigurationHelper.getInt(name + "." + segment, settings, global);
+    }
+}
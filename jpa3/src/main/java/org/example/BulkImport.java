@@ -0,0 +1,38 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.bulk.BulkInserter;
+import org.example.entities.Company;
+import org.example.entities.Price;
+import org.example.entities.embeddables.Address;
+import org.example.entities.enums.Currency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkImport {
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        List<Object> entities = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Company company = new Company();
+            company.setName("Company " + i);
+            company.setAddress(new Address());
+            company.getAddress().setNumber(String.valueOf(i));
+            company.getAddress().setStreet("street " + i);
+            company.getAddress().setCity("Cairo");
+            entities.add(company);
+
+            Price price = new Price();
+            price.setAmount(i);
+            price.setCurrency(i % 2 == 0 ? Currency.EUR : Currency.USD);
+            entities.add(price);
+        }
+
+        long start = System.nanoTime();
+        // companies and prices are written in separate multi-row INSERTs of hibernate.jdbc.batch_size rows
+        int inserted = Jpa.fromTransaction(em -> new BulkInserter(em).insert(entities));
+        System.out.printf("inserted %d rows in %d ms%n", inserted, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,12 +1,10 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.*;
 import org.example.entities.embeddables.Address;
 import org.example.entities.enums.Currency;
 
-import javax.persistence.EntityManager;
-import javax.persistence.EntityManagerFactory;
-import javax.persistence.Persistence;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -14,11 +12,6 @@ import java.util.Date;
 
 public class Main {
     public static void main(String[] args) {
-        //Entity Manager Factory
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-        //Entity Manager
-        EntityManager em = emf.createEntityManager();
-
 //        Price price = new Price();
 //        price.setAmount(1.0);
 //        price.setCurrency(Currency.EUR);
@@ -39,18 +32,13 @@ public class Main {
         company.getAddress().setStreet("street 1");
         company.getAddress().setCity("Cairo");
 
-        try {
-            em.getTransaction().begin();
+        // the Entity Manager Factory is built once and shared, the Entity Manager only lives for this transaction
+        Jpa.inTransaction(em -> {
 //            em.persist(price);
 //            em.persist(product);
 //            em.persist(event);
 //            em.persist(employee);
             em.persist(company);
-            em.getTransaction().commit();
-        } catch (Exception e) {
-            em.getTransaction().rollback();
-        } finally {
-             em.close();
-        }
+        });
     }
 }
\ No newline at end of file
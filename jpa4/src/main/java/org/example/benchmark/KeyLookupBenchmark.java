@@ -0,0 +1,113 @@
+package org.example.benchmark;
+
+import org.example.entities.embeddables.BuildingPk;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/*
+HashMap lookups with millions of composite keys, the way the application keeps buildings by id:
+- NaiveKey: equals/hashCode as an IDE generates them (Objects.hash), the hash is computed at every lookup
+- BuildingPk: the same lookups with the cached hash and the interned code
+- BuildingPk.of per lookup: the key built from the request strings each time
+Prints ns and bytes allocated per lookup (com.sun.management.ThreadMXBean, so HotSpot / OpenJDK only).
+
+Hibernate itself hashes the ids through their mapping (ComponentType), the gain here is for the maps and caches of
+the application.
+
+    -Dkeys=2000000 -Dcodes=2000 -Dlookups=10000000
+ */
+public class KeyLookupBenchmark {
+    private static final int KEYS = Integer.getInteger("keys", 2_000_000);
+    private static final int CODES = Integer.getInteger("codes", 2_000);
+    private static final int LOOKUPS = Integer.getInteger("lookups", 10_000_000);
+    private static final int PROBES = 1 << 20;
+
+    public static void main(String[] args) {
+        Map<NaiveKey, Integer> naive = new HashMap<>(KEYS * 2);
+        Map<BuildingPk, Integer> cached = new HashMap<>(KEYS * 2);
+        for (int i = 0; i < KEYS; i++) {
+            naive.put(new NaiveKey(code(i), number(i)), i);
+            cached.put(BuildingPk.of(code(i), number(i)), i);
+        }
+
+        Random random = new Random(42);
+        int[] probeIds = random.ints(PROBES, 0, KEYS).toArray();
+        NaiveKey[] naiveProbes = new NaiveKey[PROBES];
+        BuildingPk[] cachedProbes = new BuildingPk[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            naiveProbes[i] = new NaiveKey(code(probeIds[i]), number(probeIds[i]));
+            cachedProbes[i] = BuildingPk.of(code(probeIds[i]), number(probeIds[i]));
+        }
+
+        for (int run = 1; run <= 3; run++) {
+            System.out.println("run " + run);
+            measure("NaiveKey", i -> naive.get(naiveProbes[i & (PROBES - 1)]));
+            measure("BuildingPk", i -> cached.get(cachedProbes[i & (PROBES - 1)]));
+            measure("BuildingPk.of per lookup", i -> {
+                int id = probeIds[i & (PROBES - 1)];
+                return cached.get(BuildingPk.of(code(id), number(id)));
+            });
+        }
+    }
+
+    private static void measure(String name, IntFunction<Integer> lookup) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long found = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (lookup.apply(i) != null) {
+                found++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (found != LOOKUPS) {
+            throw new AssertionError(name + " found " + found + " of " + LOOKUPS + " keys");
+        }
+        System.out.printf("  %-26s %6.1f ns, %5.1f bytes allocated per lookup%n",
+                name, (double) nanos / LOOKUPS, (double) allocated / LOOKUPS);
+    }
+
+    /* new strings every time, as if they came from a request */
+    private static String code(int id) {
+        return new String("B" + (id % CODES));
+    }
+
+    private static String number(int id) {
+        return Integer.toString(id);
+    }
+
+    private static final class NaiveKey {
+        private final String code;
+        private final String number;
+
+        private NaiveKey(String code, String number) {
+            this.code = code;
+            this.number = number;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            NaiveKey other = (NaiveKey) o;
+            return Objects.equals(code, other.code) && Objects.equals(number, other.number);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(code, number);
+        }
+    }
+}
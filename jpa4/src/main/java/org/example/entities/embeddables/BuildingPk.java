@@ -1,19 +1,37 @@
 package org.example.entities.embeddables;
 
+import org.example.common.keys.Interner;
+
 import javax.persistence.Embeddable;
 import java.io.Serializable;
 
+/*
+The @EmbeddedId of Building, also the key of Building in maps and caches: BuildingPk.of("ABC", "11").
+The code repeats across many keys, it is interned. The hash is computed once per instance (the setters reset it,
+it is transient so it is computed again after deserialization).
+ */
 @Embeddable
 public class BuildingPk implements Serializable {
+    private static final Interner<String> CODES = new Interner<>(100_000);
+
     private String code;
     private String number;
+    private transient int hash;
+
+    public static BuildingPk of(String code, String number) {
+        BuildingPk pk = new BuildingPk();
+        pk.setCode(code);
+        pk.setNumber(number);
+        return pk;
+    }
 
     public String getCode() {
         return code;
     }
 
     public void setCode(String code) {
-        this.code = code;
+        this.code = CODES.intern(code);
+        this.hash = 0;
     }
 
     public String getNumber() {
@@ -22,5 +40,40 @@ public class BuildingPk implements Serializable {
 
     public void setNumber(String number) {
         this.number = number;
+        this.hash = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BuildingPk other = (BuildingPk) o;
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        return (code == other.code || code != null && code.equals(other.code))
+                && (number == other.number || number != null && number.equals(other.number));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * (code == null ? 0 : code.hashCode()) + (number == null ? 0 : number.hashCode());
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildingPk{" +
+                "code='" + code + '\'' +
+                ", number='" + number + '\'' +
+                '}';
     }
 }
@@ -1,17 +1,34 @@
 package org.example.entities.pk;
 
+import org.example.common.keys.Interner;
+
 import java.io.Serializable;
 
+/*
+The @IdClass of Department: em.find(Department.class, DepartmentPk.of("D1", "1")).
+Built like BuildingPk, the code is interned and the hash cached until a setter changes the key.
+ */
 public class DepartmentPk implements Serializable {
+    private static final Interner<String> CODES = new Interner<>(100_000);
+
     private String code;
     private String number;
+    private transient int hash;
+
+    public static DepartmentPk of(String code, String number) {
+        DepartmentPk pk = new DepartmentPk();
+        pk.setCode(code);
+        pk.setNumber(number);
+        return pk;
+    }
 
     public String getCode() {
         return code;
     }
 
     public void setCode(String code) {
-        this.code = code;
+        this.code = CODES.intern(code);
+        this.hash = 0;
     }
 
     public String getNumber() {
@@ -20,5 +37,40 @@ public class DepartmentPk implements Serializable {
 
     public void setNumber(String number) {
         this.number = number;
+        this.hash = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DepartmentPk other = (DepartmentPk) o;
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        return (code == other.code || code != null && code.equals(other.code))
+                && (number == other.number || number != null && number.equals(other.number));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * (code == null ? 0 : code.hashCode()) + (number == null ? 0 : number.hashCode());
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "DepartmentPk{" +
+                "code='" + code + '\'' +
+                ", number='" + number + '\'' +
+                '}';
     }
 }
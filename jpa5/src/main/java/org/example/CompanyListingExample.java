@@ -0,0 +1,61 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Company;
+import org.example.entities.CompanySummary;
+
+import java.util.List;
+
+public class CompanyListingExample {
+
+    public static void main(String[] args) {
+        Jpa.inTransaction(em -> {
+            Company company = new Company();
+            company.setName("Company A");
+            company.setStreet("Main street");
+            company.setNumber("1");
+            em.persist(company);
+        });
+
+        // a page listing the names: the company table alone
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<CompanySummary> companies = em.createQuery("SELECT c FROM CompanySummary c", CompanySummary.class)
+                        .getResultList();
+                companies.forEach(System.out::println);
+                print("names", counter);
+                if (counter.statements().stream().anyMatch(sql -> sql.contains("join address"))) {
+                    throw new AssertionError("Listing the names joined address");
+                }
+            }
+        });
+
+        // the full companies: street and number are read on first access (enhanced classes only)
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Company> companies = em.createQuery("SELECT c FROM Company c", Company.class).getResultList();
+                print("companies", counter);
+                counter.reset();
+                companies.forEach(c -> System.out.println(c.getName() + ", " + c.getStreet() + " " + c.getNumber()));
+                print("addresses on first access", counter);
+            }
+        });
+
+        // the full companies when we know we need the address
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Company> companies = em.createQuery("SELECT c FROM Company c FETCH ALL PROPERTIES", Company.class)
+                        .getResultList();
+                companies.forEach(c -> System.out.println(c.getName() + ", " + c.getStreet() + " " + c.getNumber()));
+                print("companies with FETCH ALL PROPERTIES", counter);
+            }
+        });
+    }
+
+    private static void print(String path, StatementCounter counter) {
+        System.out.println(path + ": " + counter.count() + " statement(s)");
+        counter.statements().forEach(sql -> System.out.println("    " + sql));
+    }
+}
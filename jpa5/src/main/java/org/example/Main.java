@@ -1,21 +1,14 @@
 package org.example;
 
+import org.example.common.Jpa;
 import org.example.entities.Company;
 import org.example.entities.Detail;
 import org.example.entities.Product;
 
-import javax.persistence.EntityManager;
-import javax.persistence.EntityManagerFactory;
-import javax.persistence.Persistence;
-
 public class Main {
     public static void main(String[] args) {
-        //Entity Manager Factory
-        EntityManagerFactory emf = Persistence.createEntityManagerFactory("my-persistence-unit");
-        //Entity Manager
-        EntityManager em = emf.createEntityManager();
-
-        Product product = em.find(Product.class, 4);
+        //the Entity Manager Factory is built once and shared, the Entity Manager only lives for this call
+        Product product = Jpa.withEntityManager(em -> em.find(Product.class, 4));
 //        Product product = new Product();
 //        product.setName("Water");
 //        product.setPrice(1.0);
@@ -25,15 +18,9 @@ public class Main {
 //        detail.setProduct(product);
 //        product.setDetail(detail);
 //
-//        try {
-//            em.getTransaction().begin();
+//        Jpa.inTransaction(em -> {
 ////            em.persist(product);
 //            em.persist(detail);
-//            em.getTransaction().commit();
-//        } catch (Exception e) {
-//            em.getTransaction().rollback();
-//        } finally {
-//            em.close();
-//        }
+//        });
     }
-}
\ No newline at end of file
+}
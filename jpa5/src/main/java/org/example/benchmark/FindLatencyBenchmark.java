@@ -0,0 +1,73 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Detail;
+import org.example.entities.Product;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+
+import java.util.Arrays;
+
+/*
+em.find(Product.class, id) with the classes as they were built, run it once after mvn compile and once after
+mvn -Penhance compile to compare:
+- first it checks the number of statements: 1 for the find when Product is enhanced (2 otherwise, Detail is
+  loaded right away), and 1 more only when getDetail() is called; it fails with an AssertionError if not
+- then it prints the find latency
+
+    -Diterations=20000
+ */
+public class FindLatencyBenchmark {
+    private static final int ITERATIONS = Integer.getInteger("iterations", 20_000);
+
+    public static void main(String[] args) {
+        boolean enhanced = PersistentAttributeInterceptable.class.isAssignableFrom(Product.class);
+        System.out.println("Product is " + (enhanced ? "" : "not ") + "enhanced");
+        int productId = createProduct();
+
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                Product product = em.find(Product.class, productId);
+                counter.assertAtMost(enhanced ? 1 : 2);
+                counter.reset();
+
+                product.getDetail().getKcal();
+                counter.assertAtMost(enhanced ? 1 : 0);
+            }
+        });
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            find(productId);
+        }
+        long[] nanos = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            find(productId);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("find(Product) %s: p50=%.1f us p99=%.1f us%n", enhanced ? "enhanced" : "not enhanced",
+                nanos[ITERATIONS / 2] / 1000.0, nanos[ITERATIONS * 99 / 100] / 1000.0);
+    }
+
+    private static void find(int productId) {
+        Jpa.withEntityManager(em -> em.find(Product.class, productId));
+    }
+
+    private static int createProduct() {
+        return Jpa.fromTransaction(em -> {
+            Product product = new Product();
+            product.setName("Water");
+            product.setPrice(1.0);
+
+            Detail detail = new Detail();
+            detail.setKcal(0);
+            detail.setProduct(product);
+            product.setDetail(detail);
+
+            em.persist(detail);
+            return product.getId();
+        });
+    }
+}
@@ -1,7 +1,18 @@
 package org.example.entities;
 
+import org.hibernate.annotations.LazyGroup;
+
 import javax.persistence.*;
 
+/*
+street and number live in the address table. They are lazy and in the same group: they are not selected with the
+company, and the first call to getStreet() or getNumber() loads both with one SELECT.
+This needs the enhanced classes (mvn -Penhance), without enhancement Hibernate loads them eagerly.
+To load them with the companies: SELECT c FROM Company c FETCH ALL PROPERTIES
+
+Hibernate still joins address when it loads a Company (it always joins the secondary tables of the class),
+pages that only need the name should read CompanySummary, it maps the company table alone.
+ */
 @Entity
 @SecondaryTable(name = "address", pkJoinColumns = @PrimaryKeyJoinColumn(name = "company"))
 public class Company {
@@ -12,8 +23,12 @@ public class Company {
     private String name;
 
     @Column(table = "address")
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("address")
     private String street;
     @Column(table = "address")
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("address")
     private String number;
 
     public Integer getId() {
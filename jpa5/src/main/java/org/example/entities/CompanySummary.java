@@ -0,0 +1,38 @@
+package org.example.entities;
+
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/*
+The company table without the address, for lists that only show the name:
+SELECT c FROM CompanySummary c reads the company table alone, no join with address.
+It's read-only (@Immutable), companies are created and changed through Company.
+ */
+@Entity
+@Immutable
+@Table(name = "Company")
+public class CompanySummary {
+    @Id
+    private Integer id;
+
+    private String name;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "CompanySummary{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -1,5 +1,8 @@
 package org.example.entities;
 
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
+
 import javax.persistence.*;
 
 @Entity
@@ -11,7 +14,13 @@ public class Product {
     private String name;
     private double price;
 
+    /*
+    The product table has no column for the detail, so Hibernate has to query detail to know whether there is one
+    (null or a proxy), LAZY is ignored and every find() of a product runs a second SELECT.
+    Only an enhanced Product (mvn -Penhance) can wait until getDetail() is called, NO_PROXY asks for that.
+     */
     @OneToOne(mappedBy = "product", fetch = FetchType.LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
     private Detail detail;
 
     public Integer getId() {
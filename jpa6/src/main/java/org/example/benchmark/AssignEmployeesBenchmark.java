@@ -0,0 +1,78 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.bulk.BulkInserter;
+import org.example.common.sql.SqlLog;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Department;
+import org.example.entities.Employee;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+Assigns -Demployees employees to a new department in one transaction, with the JDBC batches of persistence.xml
+and without batching (hibernate.jdbc.batch_size=1), and prints the time and the statements executed for the
+employee.department UPDATEs (one per batch of batch_size rows when batching, one per employee without).
+
+    -Demployees=10000
+ */
+public class AssignEmployeesBenchmark {
+    private static final int EMPLOYEES = Integer.getInteger("employees", 10_000);
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory batched = PersistenceUnits.get();
+        EntityManagerFactory unbatched = PersistenceUnits.get(PersistenceUnits.DEFAULT_UNIT,
+                Map.of("hibernate.jdbc.batch_size", "1"));
+
+        assign("not batched", unbatched);
+        assign("batched", batched);
+    }
+
+    private static void assign(String name, EntityManagerFactory emf) {
+        List<Integer> employeeIds = createEmployees();
+        EntityManager em = emf.createEntityManager();
+        try (StatementCounter counter = StatementCounter.start(emf)) {
+            long start = System.nanoTime();
+            em.getTransaction().begin();
+            Department department = new Department();
+            department.setName(name + " department");
+            em.persist(department);
+            for (Integer id : employeeIds) {
+                department.addEmployee(em.getReference(Employee.class, id));
+            }
+            em.getTransaction().commit();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            long updates = counter.statements().stream().filter(sql -> sql.startsWith("update Employee set department")).count();
+            if (counter.statements().stream().anyMatch(sql -> sql.contains("Department_Employee"))) {
+                throw new AssertionError("The employees went to the join table: " + counter.statements());
+            }
+            System.out.printf("%-12s %d employees: %6d ms, %d statements executed, %d of them UPDATE Employee%n",
+                    name, employeeIds.size(), millis, counter.count(), updates);
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static List<Integer> createEmployees() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = new Employee();
+            employee.setName("Employee " + i);
+            employees.add(employee);
+        }
+        Jpa.inTransaction(em -> new BulkInserter(em).insert(employees));
+        List<Integer> ids = new ArrayList<>(employees.size());
+        employees.forEach(e -> ids.add(e.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.bulk.BulkInserter;
+import org.example.common.metrics.StatisticsExporter;
+import org.example.common.sql.SqlLog;
+import org.example.entities.Department;
+import org.example.entities.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+Loads departments with their employees (an entity load, a collection fetch, the employees, a query and a
+transaction per call) with the Hibernate statistics off and on, switched at runtime on the same factory, and
+prints the calls per second of each and what the statistics cost. The modes alternate run after run, the
+median run of each is compared, so that warm-up and GC hit both the same way.
+
+    -Ddepartments=100 -Demployees=20 (per department) -Dcalls=20000 -Druns=5
+ */
+public class StatisticsOverheadBenchmark {
+    private static final int DEPARTMENTS = Integer.getInteger("departments", 100);
+    private static final int EMPLOYEES = Integer.getInteger("employees", 20);
+    private static final int CALLS = Integer.getInteger("calls", 20_000);
+    private static final int RUNS = Integer.getInteger("runs", 5);
+    private static final double BUDGET = 0.02;
+
+    public static void main(String[] args) {
+        SqlLog.setEnabled(false);
+        EntityManagerFactory emf = PersistenceUnits.get();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        List<Integer> departmentIds = createDepartments();
+
+        for (int i = 0; i < CALLS; i++) {
+            call(emf, departmentIds);
+        }
+        double[] off = new double[RUNS];
+        double[] on = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            statistics.setStatisticsEnabled(false);
+            off[run] = run(emf, departmentIds);
+            statistics.setStatisticsEnabled(true);
+            on[run] = run(emf, departmentIds);
+            System.out.printf("run %d: statistics off %.0f calls/s, on %.0f calls/s%n", run + 1, off[run], on[run]);
+        }
+        Arrays.sort(off);
+        Arrays.sort(on);
+        double overhead = 1 - on[RUNS / 2] / off[RUNS / 2];
+        System.out.printf("statistics overhead (median runs): %.2f%% %s%n", overhead * 100,
+                overhead <= BUDGET ? "(within the 2% budget)" : "(OVER the 2% budget)");
+
+        String metrics = StatisticsExporter.scrape();
+        if (!metrics.contains("hibernate_collection_fetches_total{unit=\"my-persistence-unit\",collection=\"org.example.entities.Department.employees\"}")) {
+            throw new AssertionError("Department.employees is not in the metrics:\n" + metrics);
+        }
+    }
+
+    /* calls per second */
+    private static double run(EntityManagerFactory emf, List<Integer> departmentIds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            call(emf, departmentIds);
+        }
+        return CALLS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void call(EntityManagerFactory emf, List<Integer> departmentIds) {
+        Integer id = departmentIds.get(ThreadLocalRandom.current().nextInt(departmentIds.size()));
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Department department = em.find(Department.class, id);
+            int employees = department.getEmployees().size();
+            long departments = em.createQuery("SELECT count(d) FROM Department d", Long.class).getSingleResult();
+            if (employees == 0 || departments == 0) {
+                throw new AssertionError("Department " + id + " has no employees");
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static List<Integer> createDepartments() {
+        List<Integer> ids = new ArrayList<>();
+        for (int d = 0; d < DEPARTMENTS; d++) {
+            List<Employee> employees = new ArrayList<>();
+            for (int e = 0; e < EMPLOYEES; e++) {
+                Employee employee = new Employee();
+                employee.setName("Employee " + d + "-" + e);
+                employees.add(employee);
+            }
+            Jpa.inTransaction(em -> {
+                new BulkInserter(em).insert(employees);
+                Department department = new Department();
+                department.setName("Benchmark department " + ids.size());
+                em.persist(department);
+                employees.forEach(employee -> department.addEmployee(em.getReference(Employee.class, employee.getId())));
+                ids.add(department.getId());
+            });
+        }
+        return ids;
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.entities;
 
 import javax.persistence.*;
+import java.util.ArrayList;
 import java.util.Collection;
 
 @Entity
@@ -11,8 +12,11 @@ public class Department {
 
     private String name;
 
+    // the employee.department FK instead of a department_employee join table: adding an employee is one
+    // UPDATE of its row (JDBC-batched), not an INSERT into a third table
     @OneToMany
-    private Collection<Employee> employees;
+    @JoinColumn(name = "department")
+    private Collection<Employee> employees = new ArrayList<>();
 
     public Integer getId() {
         return id;
@@ -37,4 +41,12 @@ public class Department {
     public void setEmployees(Collection<Employee> employees) {
         this.employees = employees;
     }
+
+    public void addEmployee(Employee employee) {
+        employees.add(employee);
+    }
+
+    public void removeEmployee(Employee employee) {
+        employees.remove(employee);
+    }
 }
@@ -0,0 +1,71 @@
+package org.example;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Professor;
+import org.example.entities.Student;
+
+import java.util.List;
+
+public class FetchPlanExample {
+    private static final int PROFESSORS = 20;
+    private static final int STUDENTS_PER_PROFESSOR = 5;
+
+    public static void main(String[] args) {
+        createData();
+
+        // touching the students of each professor: SUBSELECT loads all of them at the first access
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Professor> professors = em.createQuery("SELECT p FROM Professor p", Professor.class).getResultList();
+                professors.forEach(p -> p.getStudents().size());
+                System.out.println("SUBSELECT: " + counter.count() + " statements for " + professors.size() + " professors");
+                counter.assertAtMostPerRoot(professors.size(), 0.5); // one SELECT per professor would fail here
+            }
+        });
+
+        // the entity graph: one SELECT with a JOIN
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Professor> professors = em.createQuery("SELECT DISTINCT p FROM Professor p", Professor.class)
+                        .setHint("javax.persistence.fetchgraph", em.getEntityGraph("Professor.students"))
+                        .getResultList();
+                professors.forEach(p -> p.getStudents().size());
+                System.out.println("entity graph: " + counter.count() + " statements for " + professors.size() + " professors");
+                counter.assertAtMost(1);
+            }
+        });
+
+        // from the other side: @BatchSize loads the professors of 25 students at a time
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Student> students = em.createQuery("SELECT s FROM Student s", Student.class).getResultList();
+                students.forEach(s -> s.getProfessors().size());
+                System.out.println("@BatchSize: " + counter.count() + " statements for " + students.size() + " students");
+                counter.assertAtMost(1 + (students.size() + 24) / 25);
+            }
+        });
+    }
+
+    private static void createData() {
+        long existing = Jpa.fromTransaction(em ->
+                em.createQuery("SELECT count(p) FROM Professor p", Long.class).getSingleResult());
+        if (existing >= PROFESSORS) {
+            return;
+        }
+        Jpa.inTransaction(em -> {
+            for (long i = existing; i < PROFESSORS; i++) {
+                Professor professor = new Professor();
+                professor.setName("Prof" + i);
+                for (int j = 0; j < STUDENTS_PER_PROFESSOR; j++) {
+                    Student student = new Student();
+                    student.setName("Stud" + i + "-" + j);
+                    em.persist(student);
+                    professor.addStudent(student);
+                }
+                em.persist(professor);
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Professor;
+import org.example.entities.Student;
+
+import java.util.List;
+
+/*
+Adds one student to a professor, then removes it, for professors with more and more students, and prints
+the time and the SQL statements each change costs. With Set semantics the join table gets one INSERT or one
+DELETE whatever the size, with the old List (a bag) it was a DELETE of all the rows plus one INSERT per student.
+
+    -Dsizes=10,100,1000,5000 the number of students of each professor
+ */
+public class JoinTableWriteBenchmark {
+    private static final String SIZES = System.getProperty("sizes", "10,100,1000,5000");
+
+    public static void main(String[] args) {
+        for (String size : SIZES.split(",")) {
+            long professorId = createProfessor(Integer.parseInt(size.trim()));
+            long studentId = Jpa.fromTransaction(em -> {
+                Student student = new Student();
+                student.setName("Benchmark student");
+                em.persist(student);
+                return student.getId();
+            });
+
+            measure("add    at " + size.trim(), () -> Jpa.inTransaction(em ->
+                    em.find(Professor.class, professorId).addStudent(em.find(Student.class, studentId))));
+            measure("remove at " + size.trim(), () -> Jpa.inTransaction(em ->
+                    em.find(Professor.class, professorId).removeStudent(em.find(Student.class, studentId))));
+        }
+    }
+
+    private static long createProfessor(int students) {
+        return Jpa.fromTransaction(em -> {
+            Professor professor = new Professor();
+            professor.setName("Benchmark professor with " + students + " students");
+            em.persist(professor);
+            for (int i = 0; i < students; i++) {
+                Student student = new Student();
+                student.setName("Student " + i);
+                em.persist(student);
+                professor.addStudent(student);
+            }
+            return professor.getId();
+        });
+    }
+
+    private static void measure(String name, Runnable change) {
+        try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+            long start = System.nanoTime();
+            change.run();
+            long micros = (System.nanoTime() - start) / 1000;
+
+            List<String> statements = counter.statements();
+            long inserts = statements.stream().filter(sql -> sql.startsWith("insert into professor_student")).count();
+            long deletes = statements.stream().filter(sql -> sql.startsWith("delete from professor_student")).count();
+            System.out.printf("%-16s students: %6d us, %d statements, join table: %d insert(s), %d delete(s)%n",
+                    name, micros, statements.size(), inserts, deletes);
+        }
+    }
+}
@@ -1,9 +1,28 @@
 package org.example.entities;
 
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
 import javax.persistence.*;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/*
+students is still lazy, but when the students of one professor are needed, the students of all the
+professors loaded by the same query come with them in one SELECT (SUBSELECT), instead of one SELECT per
+professor. When we know up front that we need them, the entity graph loads professors and students
+with a single JOIN:
 
+    em.createQuery("SELECT p FROM Professor p", Professor.class)
+            .setHint("javax.persistence.fetchgraph", em.getEntityGraph("Professor.students"))
+
+students is a Set: with a List without @OrderColumn (a bag) Hibernate can't tell which row of
+professor_student changed, adding one student deleted all the rows of the professor and inserted them again.
+With a Set, adding a student is one INSERT and removing one is one DELETE.
+Use addStudent() / removeStudent(), they keep Student.professors in sync.
+ */
 @Entity
+@NamedEntityGraph(name = "Professor.students", attributeNodes = @NamedAttributeNode("students"))
 public class Professor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -11,12 +30,13 @@ public class Professor {
 
     private String name;
     @ManyToMany
+    @Fetch(FetchMode.SUBSELECT)
     @JoinTable(
             name = "professor_student",
             joinColumns = @JoinColumn(name = "professor"),
             inverseJoinColumns = @JoinColumn(name = "student")
     )
-    private List<Student> students;
+    private Set<Student> students = new LinkedHashSet<>();
 
     public Long getId() {
         return id;
@@ -34,11 +54,21 @@ public class Professor {
         this.name = name;
     }
 
-    public List<Student> getStudents() {
+    public Set<Student> getStudents() {
         return students;
     }
 
-    public void setStudents(List<Student> students) {
+    public void setStudents(Set<Student> students) {
         this.students = students;
     }
+
+    public void addStudent(Student student) {
+        students.add(student);
+        student.getProfessors().add(this);
+    }
+
+    public void removeStudent(Student student) {
+        students.remove(student);
+        student.getProfessors().remove(this);
+    }
 }
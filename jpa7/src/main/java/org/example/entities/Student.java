@@ -1,7 +1,10 @@
 package org.example.entities;
 
+import org.hibernate.annotations.BatchSize;
+
 import javax.persistence.*;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 public class Student {
@@ -11,8 +14,11 @@ public class Student {
 
     private String name;
 
+    // students are often reached through professors, not through one query, so SUBSELECT doesn't apply:
+    // the professors of up to 25 students are loaded with one SELECT
     @ManyToMany(mappedBy = "students")
-    private List<Professor> professors;
+    @BatchSize(size = 25)
+    private Set<Professor> professors = new LinkedHashSet<>();
 
     public Long getId() {
         return id;
@@ -29,4 +35,12 @@ public class Student {
     public void setName(String name) {
         this.name = name;
     }
+
+    public Set<Professor> getProfessors() {
+        return professors;
+    }
+
+    public void setProfessors(Set<Professor> professors) {
+        this.professors = professors;
+    }
 }
@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import org.example.common.Jpa;
+import org.example.common.PersistenceUnits;
+import org.example.common.sql.StatementCounter;
+import org.example.entities.Person;
+import org.example.entities.embeddables.Document;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+For persons with 10, 1000 and 100000 phones and documents, adds one element and removes one, and prints the
+time and the statements written to the collection tables. Then loads 200 persons and touches their phones to
+show the batch fetching (a few SELECTs instead of one per person).
+
+    -Dsizes=10,1000,100000
+ */
+public class ElementCollectionBenchmark {
+    private static final String SIZES = System.getProperty("sizes", "10,1000,100000");
+
+    public static void main(String[] args) {
+        for (String value : SIZES.split(",")) {
+            int size = Integer.parseInt(value.trim());
+            long personId = createPerson(size);
+
+            measure("add phone", size, personId, p -> p.getPhones().add("new phone"));
+            measure("remove phone", size, personId, p -> p.getPhones().remove("new phone"));
+            measure("add document", size, personId, p -> p.getDocuments().add(document("new", "new")));
+            measure("remove document", size, personId, p -> p.getDocuments().remove(document("new", "new")));
+        }
+
+        batchFetch(200);
+    }
+
+    private static long createPerson(int size) {
+        return Jpa.fromTransaction(em -> {
+            Person person = new Person();
+            person.setName("Person with " + size + " elements");
+            for (int i = 0; i < size; i++) {
+                person.getPhones().add("phone " + i);
+                person.getDocuments().add(document("number " + i, "reference " + i));
+            }
+            em.persist(person);
+            return person.getId();
+        });
+    }
+
+    private static void measure(String name, int size, long personId, Consumer<Person> change) {
+        try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+            long start = System.nanoTime();
+            Jpa.inTransaction(em -> change.accept(em.find(Person.class, personId)));
+            long micros = (System.nanoTime() - start) / 1000;
+
+            List<String> statements = counter.statements();
+            long writes = statements.stream()
+                    .filter(sql -> sql.startsWith("insert into person_") || sql.startsWith("delete from person_"))
+                    .count();
+            System.out.printf("%-16s %6d elements: %8d us, %d statements, %d written to the collection table%n",
+                    name, size, micros, statements.size(), writes);
+        }
+    }
+
+    private static void batchFetch(int persons) {
+        for (int i = 0; i < persons; i++) {
+            createPerson(3);
+        }
+        Jpa.inTransaction(em -> {
+            try (StatementCounter counter = StatementCounter.start(PersistenceUnits.get())) {
+                List<Person> all = em.createQuery("SELECT p FROM Person p", Person.class).getResultList();
+                all.forEach(p -> p.getPhones().size());
+                System.out.printf("phones of %d persons loaded with %d statements%n", all.size(), counter.count());
+            }
+        });
+    }
+
+    private static Document document(String number, String reference) {
+        Document document = new Document();
+        document.setNumber(number);
+        document.setReference(reference);
+        return document;
+    }
+}
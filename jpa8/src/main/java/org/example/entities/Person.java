@@ -1,10 +1,18 @@
 package org.example.entities;
 
 import org.example.entities.embeddables.Document;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
+/*
+phones and documents are Sets: a List without @OrderColumn is a bag, Hibernate can't tell which row changed
+and rewrote the whole person_phones / person_documents rows of the person on every change.
+With a Set each added element is one INSERT and each removed element one DELETE (batched, hibernate.jdbc.batch_size).
+Both are lazy, and the collections of up to 50 persons are loaded by the same SELECT (@BatchSize).
+ */
 @Entity
 public class Person {
     @Id
@@ -20,15 +28,17 @@ public class Person {
     )
     /*because this is only simple type (String) we can override the
     name using @Column it's an object we wil use AttributeOverride*/
-    @Column (name = "phone")
-    private List<String> phones;
+    @Column (name = "phone", nullable = false)
+    @BatchSize(size = 50)
+    private Set<String> phones = new LinkedHashSet<>();
 
     @ElementCollection
     @CollectionTable(
             name = "person_documents",// table name
             joinColumns = @JoinColumn(name = "person") // FK column name
     )
-    private List<Document> documents;
+    @BatchSize(size = 50)
+    private Set<Document> documents = new LinkedHashSet<>();
 
     public Long getId() {
         return id;
@@ -46,19 +56,19 @@ public class Person {
         this.name = name;
     }
 
-    public List<String> getPhones() {
+    public Set<String> getPhones() {
         return phones;
     }
 
-    public void setPhones(List<String> phones) {
+    public void setPhones(Set<String> phones) {
         this.phones = phones;
     }
 
-    public List<Document> getDocuments() {
+    public Set<Document> getDocuments() {
         return documents;
     }
 
-    public void setDocuments(List<Document> documents) {
+    public void setDocuments(Set<Document> documents) {
         this.documents = documents;
     }
 }
@@ -1,10 +1,18 @@
 package org.example.entities.embeddables;
 
+import javax.persistence.Column;
 import javax.persistence.Embeddable;
+import java.util.Objects;
 
+/*
+A value in Person.documents, a Set: two documents with the same number and reference are the same document,
+and a removed document is deleted by its columns, so they can't be null.
+ */
 @Embeddable
 public class Document {
+    @Column(nullable = false)
     private String number;
+    @Column(nullable = false)
     private String reference;
 
     public String getNumber() {
@@ -22,4 +30,17 @@ public class Document {
     public void setReference(String reference) {
         this.reference = reference;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Document)) return false;
+        Document document = (Document) o;
+        return Objects.equals(number, document.number) && Objects.equals(reference, document.reference);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(number, reference);
+    }
 }